@@ -0,0 +1,215 @@
+// 비트보드 오목판.
+// 색마다 가로 19줄, 세로 19줄, 대각선 37줄, 역대각선 37줄을 int 비트열로 따로 들고 있어서
+// 한 줄의 연속 개수나 양끝이 비었는지를 칸을 하나씩 따라가지 않고 시프트와 마스크로 구한다.
+// 줄 비트열과 빈 칸 수는 돌을 놓고 뺄 때마다 함께 갱신되므로 승리/무승부 판정이 상수 시간이고
+// 판정 중에 객체를 만들지 않는다.
+public class BitBoard implements Board {
+    private static final int DIAGONAL_LINES = SIZE * 2 - 1;
+
+    // VALID[방향][줄 번호]: 그 줄에서 실제로 판 위에 있는 칸의 비트
+    private static final int[][] VALID = new int[DIRECTIONS][];
+
+    static {
+        VALID[HORIZONTAL] = new int[SIZE];
+        VALID[VERTICAL] = new int[SIZE];
+        VALID[DIAGONAL] = new int[DIAGONAL_LINES];
+        VALID[ANTI_DIAGONAL] = new int[DIAGONAL_LINES];
+        for (int row = 0; row < SIZE; row++) {
+            for (int col = 0; col < SIZE; col++) {
+                for (int dir = 0; dir < DIRECTIONS; dir++) {
+                    VALID[dir][lineIndex(dir, row, col)] |= 1 << position(dir, row, col);
+                }
+            }
+        }
+    }
+
+    // 5비트 값을 3진수 자리값으로 바꾸는 표. 예) 0b101 -> 1 + 9
+    private static final int[] BASE3 = new int[32];
+
+    static {
+        for (int bits = 0; bits < 32; bits++) {
+            int value = 0;
+            for (int i = 4; i >= 0; i--) {
+                value = value * 3 + ((bits >> i) & 1);
+            }
+            BASE3[bits] = value;
+        }
+    }
+
+    // lines[색][방향][줄 번호]. 색 0 = 흑(X), 1 = 백(O)
+    private final int[][][] lines = new int[2][DIRECTIONS][];
+    private int emptyCount = SIZE * SIZE;
+
+    public BitBoard() {
+        for (int color = 0; color < 2; color++) {
+            for (int dir = 0; dir < DIRECTIONS; dir++) {
+                lines[color][dir] = new int[VALID[dir].length];
+            }
+        }
+    }
+
+    private BitBoard(BitBoard other) {
+        emptyCount = other.emptyCount;
+        for (int color = 0; color < 2; color++) {
+            for (int dir = 0; dir < DIRECTIONS; dir++) {
+                lines[color][dir] = other.lines[color][dir].clone();
+            }
+        }
+    }
+
+    // 가로줄은 행, 세로줄은 열, 대각선은 row - col, 역대각선은 row + col로 줄을 고른다.
+    private static int lineIndex(int dir, int row, int col) {
+        switch (dir) {
+            case HORIZONTAL:
+                return row;
+            case VERTICAL:
+                return col;
+            case DIAGONAL:
+                return row - col + SIZE - 1;
+            default:
+                return row + col;
+        }
+    }
+
+    // 줄 안에서의 비트 위치
+    private static int position(int dir, int row, int col) {
+        return dir == HORIZONTAL || dir == DIAGONAL ? col : row;
+    }
+
+    private static int colorOf(char stone) {
+        return stone == BLACK ? 0 : 1;
+    }
+
+    @Override
+    public char get(int row, int col) {
+        int bit = 1 << col;
+        if ((lines[0][HORIZONTAL][row] & bit) != 0) return BLACK;
+        if ((lines[1][HORIZONTAL][row] & bit) != 0) return WHITE;
+        return EMPTY;
+    }
+
+    @Override
+    public boolean isEmpty(int row, int col) {
+        return ((lines[0][HORIZONTAL][row] | lines[1][HORIZONTAL][row]) & (1 << col)) == 0;
+    }
+
+    @Override
+    public void place(int row, int col, char stone) {
+        if (!isEmpty(row, col)) remove(row, col);
+        emptyCount--;
+        int[][] own = lines[colorOf(stone)];
+        for (int dir = 0; dir < DIRECTIONS; dir++) {
+            own[dir][lineIndex(dir, row, col)] |= 1 << position(dir, row, col);
+        }
+    }
+
+    @Override
+    public void remove(int row, int col) {
+        if (isEmpty(row, col)) return;
+        emptyCount++;
+        for (int color = 0; color < 2; color++) {
+            for (int dir = 0; dir < DIRECTIONS; dir++) {
+                lines[color][dir][lineIndex(dir, row, col)] &= ~(1 << position(dir, row, col));
+            }
+        }
+    }
+
+    @Override
+    public int runLength(int row, int col, int dir, char stone) {
+        int line = lines[colorOf(stone)][dir][lineIndex(dir, row, col)];
+        int pos = position(dir, row, col);
+        // pos부터 위쪽 비트로 이어지는 1의 개수 + pos부터 아래쪽 비트로 이어지는 1의 개수 - 겹친 pos
+        int up = Integer.numberOfTrailingZeros(~(line >>> pos));
+        int down = Integer.numberOfLeadingZeros(~(line << (31 - pos)));
+        return up + down - 1;
+    }
+
+    @Override
+    public boolean isFive(int row, int col, char stone) {
+        for (int dir = 0; dir < DIRECTIONS; dir++) {
+            if (runLength(row, col, dir, stone) >= 5) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isOverline(int row, int col, char stone) {
+        for (int dir = 0; dir < DIRECTIONS; dir++) {
+            if (runLength(row, col, dir, stone) > 5) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int countOpenRuns(int row, int col, char stone, int length) {
+        int color = colorOf(stone);
+        int count = 0;
+        for (int dir = 0; dir < DIRECTIONS; dir++) {
+            int index = lineIndex(dir, row, col);
+            int own = lines[color][dir][index];
+            int pos = position(dir, row, col);
+            int up = Integer.numberOfTrailingZeros(~(own >>> pos));
+            int down = Integer.numberOfLeadingZeros(~(own << (31 - pos)));
+            if (up + down - 1 != length) continue;
+
+            // 연속 구간 바로 바깥 두 칸이 판 위의 빈 칸이어야 열린 것으로 본다.
+            int empty = VALID[dir][index] & ~(own | lines[1 - color][dir][index]);
+            int before = pos - down;
+            int after = pos + up;
+            if (before >= 0 && (empty & (1 << before)) != 0 && (empty & (1 << after)) != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int lineWindow(int row, int col, int dir, char stone) {
+        int color = colorOf(stone);
+        int index = lineIndex(dir, row, col);
+        int own = lines[color][dir][index];
+        int empty = VALID[dir][index] & ~(own | lines[1 - color][dir][index]);
+        int pos = position(dir, row, col);
+
+        // 5칸만큼 밀어 두면 pos - 5가 음수여도 그대로 시프트할 수 있다.
+        long ownBits = (long) own << 5;
+        long emptyBits = (long) empty << 5;
+
+        // 앞쪽 5칸은 가까운 칸이 낮은 자리가 되도록 비트 순서를 뒤집는다.
+        int frontOwn = Integer.reverse((int) (ownBits >>> pos) & 31) >>> 27;
+        int frontEmpty = Integer.reverse((int) (emptyBits >>> pos) & 31) >>> 27;
+        int backOwn = (int) (ownBits >>> (pos + 6)) & 31;
+        int backEmpty = (int) (emptyBits >>> (pos + 6)) & 31;
+        int frontBlocked = ~(frontOwn | frontEmpty) & 31;
+        int backBlocked = ~(backOwn | backEmpty) & 31;
+
+        return BASE3[frontOwn] + 2 * BASE3[frontBlocked]
+                + 243 * (BASE3[backOwn] + 2 * BASE3[backBlocked]);
+    }
+
+    @Override
+    public boolean isFull() {
+        return emptyCount == 0;
+    }
+
+    @Override
+    public int getEmptyCount() {
+        return emptyCount;
+    }
+
+    @Override
+    public Board copy() {
+        return new BitBoard(this);
+    }
+
+    @Override
+    public char[] toCells() {
+        char[] cells = new char[SIZE * SIZE];
+        for (int row = 0; row < SIZE; row++) {
+            for (int col = 0; col < SIZE; col++) {
+                cells[row * SIZE + col] = get(row, col);
+            }
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,264 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// BitBoard가 예전 char[][] 판의 판정과 같은 답을 내는지 맞춰 보는 검사.
+// 비교 기준인 checkWin/isBoardFull/countPatterns는 BitBoard로 바꾸기 전 서버의 반복문을 그대로 옮긴 것이다.
+//   1. 무작위 대국: 돌을 놓다가 가끔 무르면서 놓인 돌마다 모든 판정을 비교한다.
+//   2. 줄 배치: 네 방향 모두, 판 가장자리에 닿는 자리까지 길이 2~7의 줄을 깔고 양끝을 비우거나 막아 비교한다. (장목 포함)
+//   3. 판 채우기: 빈 칸 수와 isFull()을 마지막 칸까지 비교한다.
+// 실행: javac -d out src/*.java && java -cp out BitBoardCheck [대국 수] [시드]
+// 틀린 곳이 있으면 처음 것을 찍고 1로 끝난다.
+public class BitBoardCheck {
+    private static final int SIZE = Board.SIZE;
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}}; // Board의 방향 번호 순서
+
+    private final char[][] board = new char[SIZE][SIZE];
+    private final BitBoard bits = new BitBoard();
+    private long checks = 0;
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+        try {
+            long checks = randomGames(games, new Random(seed)) + linePlacements() + fill();
+            System.out.println("BitBoardCheck passed: " + checks + " checks (" + games + " games, seed " + seed + ")");
+        } catch (IllegalStateException e) {
+            System.out.println("BitBoardCheck FAILED (seed " + seed + "): " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private BitBoardCheck() {
+        for (char[] row : board) Arrays.fill(row, Board.EMPTY);
+    }
+
+    private static long randomGames(int games, Random random) {
+        long checks = 0;
+        for (int game = 0; game < games; game++) {
+            BitBoardCheck check = new BitBoardCheck();
+            List<int[]> moves = new ArrayList<>();
+            char stone = Board.BLACK;
+            int length = 20 + random.nextInt(SIZE * SIZE - 20);
+            for (int i = 0; i < length; i++) {
+                if (!moves.isEmpty() && random.nextInt(8) == 0) {
+                    // 무르기. 한두 수를 되돌린다.
+                    for (int undo = 1 + random.nextInt(2); undo > 0 && !moves.isEmpty(); undo--) {
+                        int[] move = moves.remove(moves.size() - 1);
+                        check.remove(move[0], move[1]);
+                        stone = opponent(stone);
+                    }
+                    check.compareAll();
+                    continue;
+                }
+                int row, col;
+                do {
+                    row = random.nextInt(SIZE);
+                    col = random.nextInt(SIZE);
+                } while (check.board[row][col] != Board.EMPTY);
+                check.place(row, col, stone);
+                moves.add(new int[] {row, col});
+                check.compareAt(row, col);
+                stone = opponent(stone);
+            }
+            check.compareAll();
+            check.compareCopy();
+            checks += check.checks;
+        }
+        return checks;
+    }
+
+    // 모든 방향과 시작 칸에 길이 2~7의 줄을 깔고, 양끝을 빈 칸/상대 돌/판 밖으로 바꿔 가며 줄 위의 모든 칸을 비교한다.
+    private static long linePlacements() {
+        long checks = 0;
+        for (int dir = 0; dir < DIRECTIONS.length; dir++) {
+            int dr = DIRECTIONS[dir][0], dc = DIRECTIONS[dir][1];
+            for (int length = 2; length <= 7; length++) {
+                for (int row = 0; row < SIZE; row++) {
+                    for (int col = 0; col < SIZE; col++) {
+                        int endRow = row + dr * (length - 1), endCol = col + dc * (length - 1);
+                        if (!Board.isInside(endRow, endCol)) continue;
+                        for (int ends = 0; ends < 4; ends++) {
+                            BitBoardCheck check = new BitBoardCheck();
+                            for (int i = 0; i < length; i++) check.place(row + dr * i, col + dc * i, Board.BLACK);
+                            if ((ends & 1) != 0 && Board.isInside(row - dr, col - dc)) {
+                                check.place(row - dr, col - dc, Board.WHITE);
+                            }
+                            if ((ends & 2) != 0 && Board.isInside(endRow + dr, endCol + dc)) {
+                                check.place(endRow + dr, endCol + dc, Board.WHITE);
+                            }
+                            for (int i = 0; i < length; i++) check.compareAt(row + dr * i, col + dc * i);
+                            checks += check.checks;
+                        }
+                    }
+                }
+            }
+        }
+        return checks;
+    }
+
+    // 흑백을 번갈아 판을 끝까지 채운다.
+    private static long fill() {
+        BitBoardCheck check = new BitBoardCheck();
+        for (int cell = 0; cell < SIZE * SIZE; cell++) {
+            check.place(cell / SIZE, cell % SIZE, (cell + cell / SIZE) % 2 == 0 ? Board.BLACK : Board.WHITE);
+            check.compareCounts();
+        }
+        if (!check.bits.isFull()) throw new IllegalStateException("full board not reported as full");
+        return check.checks;
+    }
+
+    private void place(int row, int col, char stone) {
+        board[row][col] = stone;
+        bits.place(row, col, stone);
+    }
+
+    private void remove(int row, int col) {
+        board[row][col] = Board.EMPTY;
+        bits.remove(row, col);
+    }
+
+    private void compareAll() {
+        compareCounts();
+        for (int row = 0; row < SIZE; row++) {
+            for (int col = 0; col < SIZE; col++) {
+                if (bits.get(row, col) != board[row][col]) fail("get", row, col, bits.get(row, col), board[row][col]);
+                if (board[row][col] != Board.EMPTY) compareAt(row, col);
+            }
+        }
+    }
+
+    // (row, col)의 돌에 대해 승리, 장목, 연속 개수, 열린 줄 수를 비교한다.
+    private void compareAt(int row, int col) {
+        char stone = board[row][col];
+        expect("isFive", row, col, bits.isFive(row, col, stone), checkWin(row, col, stone));
+        expect("isOverline", row, col, bits.isOverline(row, col, stone), longestRun(row, col, stone) > 5);
+        for (int dir = 0; dir < DIRECTIONS.length; dir++) {
+            expect("runLength[" + dir + "]", row, col, bits.runLength(row, col, dir, stone), runLength(row, col, dir, stone));
+        }
+        for (int length = 2; length <= 4; length++) {
+            expect("countOpenRuns(" + length + ")", row, col,
+                    bits.countOpenRuns(row, col, stone, length), countPatterns(row, col, stone, length, true));
+        }
+        compareCounts();
+    }
+
+    private void compareCounts() {
+        expect("isFull", -1, -1, bits.isFull(), isBoardFull());
+        int empty = 0;
+        for (char[] line : board) for (char cell : line) if (cell == Board.EMPTY) empty++;
+        expect("getEmptyCount", -1, -1, bits.getEmptyCount(), empty);
+    }
+
+    private void compareCopy() {
+        char[] original = bits.toCells();
+        char[] copied = bits.copy().toCells();
+        if (!Arrays.equals(original, copied)) throw new IllegalStateException("copy() differs from original");
+    }
+
+    private void expect(String what, int row, int col, Object actual, Object expected) {
+        checks++;
+        if (!actual.equals(expected)) fail(what, row, col, actual, expected);
+    }
+
+    private void fail(String what, int row, int col, Object actual, Object expected) {
+        throw new IllegalStateException(what + " at (" + row + ", " + col + "): BitBoard " + actual
+                + ", reference " + expected + "\n" + String.valueOf(bits.toCells()).replaceAll("(.{19})", "$1\n"));
+    }
+
+    // ---- 아래는 BitBoard 이전 GomokuServer의 판정 ----
+
+    private boolean checkWin(int row, int col, char symbol) {
+        int[][] directions = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
+        for (int[] dir : directions) {
+            int count = 1;
+            for (int d = -1; d <= 1; d += 2) {
+                int r = row, c = col;
+                while (true) {
+                    r += dir[0] * d;
+                    c += dir[1] * d;
+                    if (r >= 0 && r < SIZE && c >= 0 && c < SIZE && board[r][c] == symbol) {
+                        count++;
+                    } else {
+                        break;
+                    }
+                }
+            }
+            if (count >= 5) return true;
+        }
+        return false;
+    }
+
+    private boolean isBoardFull() {
+        for (char[] row : board) {
+            for (char cell : row) {
+                if (cell == '.') return false;
+            }
+        }
+        return true;
+    }
+
+    private int countPatterns(int row, int col, char symbol, int length, boolean checkOpen) {
+        int count = 0;
+        int[][] directions = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
+
+        for (int[] dir : directions) {
+            int consecutive = 1; // 현재 연속된 돌 개수
+            boolean openStart = false, openEnd = false;
+
+            // ← 방향
+            int nx = row - dir[0], ny = col - dir[1];
+            while (isValid(nx, ny) && board[nx][ny] == symbol) {
+                consecutive++;
+                nx -= dir[0];
+                ny -= dir[1];
+            }
+            if (isValid(nx, ny) && board[nx][ny] == '.') openStart = true;
+
+            // → 방향
+            nx = row + dir[0];
+            ny = col + dir[1];
+            while (isValid(nx, ny) && board[nx][ny] == symbol) {
+                consecutive++;
+                nx += dir[0];
+                ny += dir[1];
+            }
+            if (isValid(nx, ny) && board[nx][ny] == '.') openEnd = true;
+
+            // 패턴이 유효한지 검사
+            if (consecutive == length && (openStart && openEnd)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static boolean isValid(int x, int y) {
+        return x >= 0 && x < SIZE && y >= 0 && y < SIZE;
+    }
+
+    // checkWin과 같은 걸음으로 한 방향의 연속 개수를 센다.
+    private int runLength(int row, int col, int dir, char symbol) {
+        int count = 1;
+        for (int d = -1; d <= 1; d += 2) {
+            int r = row + DIRECTIONS[dir][0] * d, c = col + DIRECTIONS[dir][1] * d;
+            while (isValid(r, c) && board[r][c] == symbol) {
+                count++;
+                r += DIRECTIONS[dir][0] * d;
+                c += DIRECTIONS[dir][1] * d;
+            }
+        }
+        return count;
+    }
+
+    private int longestRun(int row, int col, char symbol) {
+        int longest = 0;
+        for (int dir = 0; dir < DIRECTIONS.length; dir++) longest = Math.max(longest, runLength(row, col, dir, symbol));
+        return longest;
+    }
+
+    private static char opponent(char stone) {
+        return stone == Board.BLACK ? Board.WHITE : Board.BLACK;
+    }
+}
@@ -0,0 +1,53 @@
+// 서버 규칙 엔진이 쓰는 오목판. 돌은 '.'(빈 칸), 'X'(흑), 'O'(백)로 표시한다.
+public interface Board {
+    int SIZE = 19;
+    char EMPTY = '.';
+    char BLACK = 'X';
+    char WHITE = 'O';
+
+    // 방향 번호: 가로(─), 세로(│), 대각선(╲), 역대각선(╱)
+    int HORIZONTAL = 0;
+    int VERTICAL = 1;
+    int DIAGONAL = 2;
+    int ANTI_DIAGONAL = 3;
+    int DIRECTIONS = 4;
+
+    char get(int row, int col);
+
+    boolean isEmpty(int row, int col);
+
+    void place(int row, int col, char stone);
+
+    void remove(int row, int col);
+
+    // (row, col)을 지나는 한 방향의 stone 연속 개수. (row, col)에도 stone이 있어야 한다.
+    int runLength(int row, int col, int direction, char stone);
+
+    // (row, col)을 지나는 연속된 돌이 5개 이상인 방향이 있는지
+    boolean isFive(int row, int col, char stone);
+
+    // (row, col)을 지나는 연속된 돌이 6개 이상인 방향이 있는지 (장목)
+    boolean isOverline(int row, int col, char stone);
+
+    // (row, col)을 지나는 연속된 돌이 정확히 length개이고 양끝이 비어 있는 방향의 수
+    int countOpenRuns(int row, int col, char stone, int length);
+
+    // (row, col)을 가운데로 한 방향의 양옆 5칸씩(10칸)을 3진수로 묶은 값.
+    // 각 칸은 0 = 빈 칸, 1 = stone, 2 = 상대 돌이나 판 밖. 가까운 칸이 낮은 자리이고
+    // 앞쪽(위/왼쪽) 5칸이 낮은 다섯 자리, 뒤쪽 5칸이 높은 다섯 자리다. PatternTable의 색인으로 쓴다.
+    int lineWindow(int row, int col, int direction, char stone);
+
+    boolean isFull();
+
+    // 남은 빈 칸 수
+    int getEmptyCount();
+
+    Board copy();
+
+    // 행 우선으로 펼친 칸 배열 (스냅샷 전송용)
+    char[] toCells();
+
+    static boolean isInside(int row, int col) {
+        return row >= 0 && row < SIZE && col >= 0 && col < SIZE;
+    }
+}
@@ -0,0 +1,121 @@
+import java.util.concurrent.ExecutorService;
+
+// 방의 한 자리를 채우는 서버 쪽 봇. 소켓 없이 Connection을 흉내 내므로 GameRoom은 사람과 똑같이 다룬다.
+// 방이 보내는 BOARD/BOARD_DELTA로 자기 보드를 따라가다가 YOUR_TURN을 받으면 searchPool에서 ParallelSearch로 수를 읽고
+// 사람이 보낸 것처럼 MOVE를 넘긴다. send()는 방의 잠금 안에서 불리므로 방으로 되돌아가는 일은 모두 searchPool에서 한다.
+// 연습용이라 무르기 요청은 항상 받아 준다. 레이팅에는 반영하지 않는다.
+public class BotPlayer implements Connection {
+    public static final String NAME = "[bot]"; // LOGIN 이름으로는 쓸 수 없는 글자라 사람과 겹치지 않는다
+
+    private final RuleSet rules;
+    private final ExecutorService searchPool;
+    private final ParallelSearch search; // 모든 봇이 함께 쓴다
+    private final long moveMillis;
+    private final long moveNodes;
+    private final Board board = new BitBoard(); // 이 객체의 모니터로 보호한다
+    private char stone = Board.WHITE;
+    private int turn = 0; // YOUR_TURN을 받을 때마다 늘린다. 늦게 끝난 탐색의 수를 버린다
+    private volatile FrameListener listener;
+    private volatile boolean closed = false;
+
+    public BotPlayer(RuleSet rules, ExecutorService searchPool, ParallelSearch search, long moveMillis, long moveNodes) {
+        this.rules = rules;
+        this.searchPool = searchPool;
+        this.search = search;
+        this.moveMillis = moveMillis;
+        this.moveNodes = moveNodes;
+    }
+
+    @Override
+    public void startReading(FrameListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public synchronized void send(Message message) {
+        if (closed) return;
+        switch (message.type) {
+            case ROLE -> stone = message.row == 1 ? Board.BLACK : Board.WHITE;
+            case BOARD -> {
+                for (int cell = 0; cell < message.cells.length; cell++) {
+                    int row = cell / Board.SIZE, col = cell % Board.SIZE;
+                    if (message.cells[cell] == Board.EMPTY) board.remove(row, col);
+                    else board.place(row, col, message.cells[cell]);
+                }
+            }
+            case BOARD_DELTA -> {
+                for (int i = 0; i < message.changeCount(); i++) {
+                    int row = message.changes[i * 3], col = message.changes[i * 3 + 1];
+                    char cell = (char) message.changes[i * 3 + 2];
+                    if (cell == Board.EMPTY) board.remove(row, col);
+                    else board.place(row, col, cell);
+                }
+            }
+            case YOUR_TURN -> {
+                int current = ++turn;
+                Board position = board.copy();
+                searchPool.execute(() -> play(position, current));
+            }
+            case UNDO_RESPONSE_REQUIRED -> {
+                Message accepted = Message.undo(MessageType.UNDO_ACCEPTED, message.undoDepth());
+                searchPool.execute(() -> reply(accepted));
+            }
+            default -> {
+                // 채팅, 시계, 결과 등은 봇에게 필요 없다.
+            }
+        }
+    }
+
+    private void play(Board position, int current) {
+        int cell = search.bestMove(position, stone, rules, moveMillis, moveNodes);
+        synchronized (this) {
+            if (closed || current != turn || cell < 0) return;
+        }
+        reply(Message.move(cell / Board.SIZE, cell % Board.SIZE));
+    }
+
+    private void reply(Message message) {
+        FrameListener target = listener;
+        if (!closed && target != null) target.onFrame(this, message);
+    }
+
+    // 방송용 프레임은 사람에게만 의미가 있다.
+    @Override
+    public void sendFrame(byte[] frame) {
+    }
+
+    @Override
+    public int pendingFrames() {
+        return 0;
+    }
+
+    // 변경분을 받아야 보드를 따라갈 수 있다.
+    @Override
+    public boolean isBinary() {
+        return true;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public String getRemoteAddress() {
+        return "bot";
+    }
+
+    @Override
+    public String getPlayerName() {
+        return NAME;
+    }
+
+    @Override
+    public void setPlayerName(String name) {
+    }
+}
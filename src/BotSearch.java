@@ -0,0 +1,342 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// 봇의 수 읽기. 반복 심화 알파-베타(PVS)로 시간이나 노드 예산이 다할 때까지 한 수씩 더 깊이 읽는다.
+// 후보는 돌을 가운데로 한 5x5 안의 빈 칸뿐이고(CandidateSet), 칸마다 양쪽 돌을 놓아 보아 PatternTable로 오목/사/삼을 센 위협 점수로
+// 순서를 정한다. 바로 이길 수가 있으면 그것만, 상대가 다음에 오목을 만들 칸이 있으면 그 칸만 본다.
+// 국면은 Zobrist 해시로 TranspositionTable에 남겨 같은 국면을 다시 읽지 않고, 표의 최선 수를 먼저 본다.
+// 한 객체는 한 스레드에서만 쓴다. 배열은 모두 미리 만들어 두므로 탐색 중에는 객체를 만들지 않는다.
+// 표는 여러 객체가 함께 쓸 수 있어서 ParallelSearch는 같은 국면을 여러 스레드에서 읽게 해 표로 결과를 나눈다 (Lazy SMP).
+public class BotSearch {
+    private static final int SIZE = Board.SIZE;
+    private static final int CELLS = SIZE * SIZE;
+    private static final int MAX_DEPTH = 12;
+    private static final int MAX_PLY = MAX_DEPTH + 2;
+    private static final int BEAM = 20;         // 한 국면에서 읽는 후보 수. 위협 점수가 높은 것부터
+    private static final int CHECK_INTERVAL = 1023; // 이 노드 수마다 시간을 본다
+    static final int WIN = 1_000_000;
+    private static final int WIN_BOUND = WIN - 1000; // 이보다 크면 몇 수 뒤의 승리다
+
+    // 위협 점수. 칸에 돌을 놓았을 때 생기는 모양의 값
+    private static final int FIVE = 100_000;
+    private static final int WINNING_THREAT = 20_000; // 열린 사, 사사. 막을 수 없다
+    private static final int FOUR_THREE = 10_000;
+    private static final int DOUBLE_THREE = 5_000;
+    private static final int FOUR = 1_000;
+    private static final int THREE = 400;
+    private static final int TWO = 40;
+
+    // Zobrist 키. [색][칸]과 차례, 규칙. 시드를 고정해 서버를 다시 띄워도 같다.
+    private static final long[][] ZOBRIST = new long[2][CELLS];
+    private static final long WHITE_TO_MOVE;
+    private static final long[] RULES_KEY = new long[RuleSet.values().length];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EED_0F_60_0D0L);
+        for (int color = 0; color < 2; color++) {
+            for (int cell = 0; cell < CELLS; cell++) ZOBRIST[color][cell] = random.nextLong();
+        }
+        WHITE_TO_MOVE = random.nextLong();
+        for (int i = 0; i < RULES_KEY.length; i++) RULES_KEY[i] = random.nextLong();
+    }
+
+    private final TranspositionTable table;
+    private final int[][] moveCells = new int[MAX_PLY][CELLS];
+    private final int[][] moveScores = new int[MAX_PLY][CELLS];
+    private final int[][] killers = new int[MAX_PLY][2];
+    private final CandidateSet candidates = new CandidateSet();
+    private Board board;
+    private RuleSet rules;
+    private long hash;
+    private long nodes;
+    private long maxNodes;
+    private long deadline;
+    private boolean aborted;
+    private AtomicBoolean stop; // 다른 스레드가 탐색을 멈추라고 알린다. 없으면 null
+    private int completedDepth;
+    private int rootScore;
+
+    // generate()가 채운다.
+    private int ownSum;
+    private int otherSum;
+    private int ownFive;        // 두면 바로 이기는 칸. 없으면 -1
+    private int otherFiveCount; // 상대가 두면 바로 이기는 칸 수
+    private int otherFive;      // 그중 막을 수 있는 (금수가 아닌) 칸. 없으면 -1
+
+    public BotSearch(int tableBits) {
+        this(new TranspositionTable(tableBits));
+    }
+
+    public BotSearch(TranspositionTable table) {
+        this.table = table;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    // stone 차례에 둘 칸 번호를 돌려준다. 둘 곳이 없으면 -1
+    // maxNodes가 0이면 시간만 본다. 한 단계도 끝내지 못했으면 위협 점수가 가장 높은 칸을 둔다.
+    public int bestMove(Board position, char stone, RuleSet rules, long timeMillis, long maxNodes) {
+        return run(position, stone, rules, System.nanoTime() + timeMillis * 1_000_000, maxNodes, null, 0);
+    }
+
+    // 같은 국면을 함께 읽는 도우미. 결과는 표에만 남긴다. 홀수 번 도우미는 한 단계 깊이에서 시작해
+    // 주 탐색과 다른 가지를 먼저 채우게 한다. stop이 켜지거나 deadline이 지나면 끝난다.
+    public void help(Board position, char stone, RuleSet rules, long deadline, AtomicBoolean stop, int helper) {
+        run(position, stone, rules, deadline, 0, stop, helper);
+    }
+
+    private int run(Board position, char stone, RuleSet rules, long deadline, long maxNodes, AtomicBoolean stop, int helper) {
+        this.board = position.copy();
+        this.rules = rules;
+        this.maxNodes = maxNodes;
+        this.deadline = deadline;
+        this.stop = stop;
+        nodes = 0;
+        aborted = false;
+        completedDepth = 0;
+        hash = RULES_KEY[rules.ordinal()] ^ (stone == Board.WHITE ? WHITE_TO_MOVE : 0);
+        candidates.clear();
+        for (int[] killer : killers) killer[0] = killer[1] = -1;
+        for (int cell = 0; cell < CELLS; cell++) {
+            char cellStone = board.get(cell / SIZE, cell % SIZE);
+            if (cellStone == Board.EMPTY) continue;
+            hash ^= ZOBRIST[colorOf(cellStone)][cell];
+            candidates.place(cell);
+        }
+        if (board.getEmptyCount() == CELLS) return CELLS / 2; // 첫 수는 한가운데
+
+        int count = generate(0, stone);
+        if (count == 0) return -1;
+        if (ownFive >= 0) return ownFive;
+        int best = moveCells[0][0];
+        if (count == 1) return best;
+
+        for (int depth = 1 + helper % 2; depth <= MAX_DEPTH; depth++) {
+            int move = searchRoot(depth, stone);
+            if (aborted) break;
+            best = move;
+            completedDepth = depth;
+            if (Math.abs(rootScore) > WIN_BOUND) break; // 승패가 정해졌다
+        }
+        return best;
+    }
+
+    private int searchRoot(int depth, char stone) {
+        int alpha = -WIN - 1, beta = WIN + 1;
+        int count = orderedMoves(0, stone, table.probe(hash));
+        int best = moveCells[0][0];
+        for (int i = 0; i < count; i++) {
+            int cell = moveCells[0][i];
+            int score = tryMove(cell, stone, depth, alpha, beta, 0, i == 0);
+            if (aborted) return best;
+            if (score > alpha) {
+                alpha = score;
+                best = cell;
+            }
+        }
+        table.store(hash, depth, TranspositionTable.EXACT, alpha, best);
+        rootScore = alpha;
+        return best;
+    }
+
+    // cell에 두고 읽은 점수. 첫 수가 아니면 좁은 창으로 먼저 보고 넘을 때만 다시 읽는다.
+    private int tryMove(int cell, char stone, int depth, int alpha, int beta, int ply, boolean first) {
+        int row = cell / SIZE, col = cell % SIZE;
+        place(cell, stone);
+        int score;
+        if (rules.isWin(board, row, col, stone)) {
+            score = WIN - ply - 1;
+        } else if (board.isFull()) {
+            score = 0;
+        } else if (first) {
+            score = -search(depth - 1, -beta, -alpha, ply + 1, opponent(stone));
+        } else {
+            score = -search(depth - 1, -alpha - 1, -alpha, ply + 1, opponent(stone));
+            if (score > alpha && score < beta && !aborted) {
+                score = -search(depth - 1, -beta, -alpha, ply + 1, opponent(stone));
+            }
+        }
+        remove(cell, stone);
+        return score;
+    }
+
+    private int search(int depth, int alpha, int beta, int ply, char stone) {
+        if ((++nodes & CHECK_INTERVAL) == 0 && outOfBudget()) aborted = true;
+        if (aborted) return 0;
+
+        long entry = table.probe(hash);
+        if (entry != 0 && TranspositionTable.depth(entry) >= depth) {
+            int score = fromTable(TranspositionTable.score(entry), ply);
+            int kind = TranspositionTable.kind(entry);
+            if (kind == TranspositionTable.EXACT
+                    || (kind == TranspositionTable.LOWER && score >= beta)
+                    || (kind == TranspositionTable.UPPER && score <= alpha)) {
+                return score;
+            }
+        }
+
+        if (depth <= 0 || ply >= MAX_PLY - 1) {
+            generate(ply, stone);
+            return evaluate(ply);
+        }
+        int count = orderedMoves(ply, stone, entry);
+        if (ownFive >= 0) return WIN - ply - 1;
+        if (count == 0) return 0;
+
+        int originalAlpha = alpha;
+        int bestMove = moveCells[ply][0];
+        int bestScore = -WIN - 1;
+        for (int i = 0; i < count; i++) {
+            int cell = moveCells[ply][i];
+            int score = tryMove(cell, stone, depth, alpha, beta, ply, i == 0);
+            if (aborted) return 0;
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = cell;
+            }
+            if (score > alpha) alpha = score;
+            if (alpha >= beta) {
+                if (killers[ply][0] != cell) {
+                    killers[ply][1] = killers[ply][0];
+                    killers[ply][0] = cell;
+                }
+                break;
+            }
+        }
+        int kind = bestScore <= originalAlpha ? TranspositionTable.UPPER
+                : bestScore >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+        table.store(hash, depth, kind, toTable(bestScore, ply), bestMove);
+        return bestScore;
+    }
+
+    // 끝 국면의 점수. 둘 차례인 쪽 기준이다.
+    private int evaluate(int ply) {
+        if (ownFive >= 0) return WIN - ply - 1;
+        if (otherFiveCount >= 2) return -(WIN - ply - 2); // 한 곳만 막을 수 있다
+        return ownSum - otherSum * 9 / 10;
+    }
+
+    // 후보를 만들고 읽을 순서로 정렬해 앞의 BEAM개만 남긴다. 표의 수와 킬러 수를 먼저 본다.
+    // 상대에게 오목 자리가 있으면 그 칸을 막는 수만 남긴다.
+    private int orderedMoves(int ply, char stone, long entry) {
+        int count = generate(ply, stone);
+        if (ownFive >= 0 || count == 0) return count;
+        int[] cells = moveCells[ply];
+        int[] scores = moveScores[ply];
+        if (otherFive >= 0) {
+            cells[0] = otherFive;
+            return 1;
+        }
+        int tableMove = entry != 0 ? TranspositionTable.move(entry) : -1;
+        for (int i = 0; i < count; i++) {
+            if (cells[i] == tableMove) scores[i] += 1 << 28;
+            else if (cells[i] == killers[ply][0] || cells[i] == killers[ply][1]) scores[i] += 1 << 26;
+        }
+        // 삽입 정렬. 후보는 수십 개다.
+        for (int i = 1; i < count; i++) {
+            int cell = cells[i], score = scores[i];
+            int j = i - 1;
+            while (j >= 0 && scores[j] < score) {
+                cells[j + 1] = cells[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            cells[j + 1] = cell;
+            scores[j + 1] = score;
+        }
+        return Math.min(count, BEAM);
+    }
+
+    // 후보 칸과 순서 점수(공격 + 수비)를 moveCells[ply]에 채우고 양쪽 위협의 합과 오목 자리를 센다.
+    // 둘 수 없는 칸(흑의 금수)은 후보에서 뺀다.
+    private int generate(int ply, char stone) {
+        char other = opponent(stone);
+        int[] cells = moveCells[ply];
+        int[] scores = moveScores[ply];
+        int count = 0;
+        ownSum = otherSum = 0;
+        ownFive = otherFive = -1;
+        otherFiveCount = 0;
+        for (int cell = candidates.next(0); cell >= 0; cell = candidates.next(cell + 1)) {
+            int row = cell / SIZE, col = cell % SIZE;
+            int attack = threat(row, col, stone);
+            int defense = threat(row, col, other);
+            if (defense >= FIVE) otherFiveCount++;
+            if (defense > 0) otherSum += defense;
+            if (attack < 0) continue; // 금수
+            if (defense >= FIVE) otherFive = cell; // 막을 수 있는 칸
+            if (attack >= FIVE && ownFive < 0) ownFive = cell;
+            ownSum += attack;
+            cells[count] = cell;
+            scores[count] = attack + defense;
+            count++;
+        }
+        return count;
+    }
+
+    // (row, col)에 stone을 놓으면 생기는 위협의 값. 금수면 -1
+    private int threat(int row, int col, char stone) {
+        board.place(row, col, stone);
+        try {
+            if (rules.isWin(board, row, col, stone)) return FIVE;
+            if (rules.isForbidden(board, row, col, stone)) return -1;
+            int fours = 0, threes = 0;
+            boolean openFour = false;
+            for (int dir = 0; dir < Board.DIRECTIONS; dir++) {
+                int window = board.lineWindow(row, col, dir, stone);
+                fours += PatternTable.fourCount(window);
+                openFour |= PatternTable.isOpenFour(window);
+                if (PatternTable.isThree(window)) threes++;
+            }
+            if (openFour || fours >= 2) return WINNING_THREAT;
+            if (fours == 1 && threes >= 1) return FOUR_THREE;
+            if (threes >= 2) return DOUBLE_THREE;
+            return fours * FOUR + threes * THREE + board.countOpenRuns(row, col, stone, 2) * TWO + 1;
+        } finally {
+            board.remove(row, col);
+        }
+    }
+
+    private void place(int cell, char stone) {
+        board.place(cell / SIZE, cell % SIZE, stone);
+        hash ^= ZOBRIST[colorOf(stone)][cell] ^ WHITE_TO_MOVE;
+        candidates.place(cell);
+    }
+
+    private void remove(int cell, char stone) {
+        board.remove(cell / SIZE, cell % SIZE);
+        hash ^= ZOBRIST[colorOf(stone)][cell] ^ WHITE_TO_MOVE;
+        candidates.remove(cell);
+    }
+
+    private boolean outOfBudget() {
+        return (maxNodes > 0 && nodes >= maxNodes) || (stop != null && stop.get()) || System.nanoTime() >= deadline;
+    }
+
+    // 승패 점수는 루트가 아니라 그 국면에서 센 수로 표에 넣는다.
+    private static int toTable(int score, int ply) {
+        if (score > WIN_BOUND) return score + ply;
+        if (score < -WIN_BOUND) return score - ply;
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score > WIN_BOUND) return score - ply;
+        if (score < -WIN_BOUND) return score + ply;
+        return score;
+    }
+
+    private static char opponent(char stone) {
+        return stone == Board.BLACK ? Board.WHITE : Board.BLACK;
+    }
+
+    private static int colorOf(char stone) {
+        return stone == Board.BLACK ? 0 : 1;
+    }
+}
@@ -0,0 +1,118 @@
+import java.util.Arrays;
+
+// 어느 돌을 가운데로 한 5x5 칸(행과 열이 각각 두 칸 이내, 날일자 자리 포함) 안에 있는 빈 칸의 집합.
+// 봇의 후보 수와 시간이 다 됐을 때 대신 둘 칸을 여기서 고른다.
+// 칸마다 두 칸 안의 돌 수를 세어 두고 돌을 놓거나 뺄 때 둘레 25칸만 고치므로, 361칸을 훑지 않고 후보가 바로 나온다.
+// 후보는 361비트를 long 여섯 개에 담은 비트셋이라 개수 세기와 다음 후보 찾기가 비트 연산이고 객체를 만들지 않는다.
+// 돌 색은 구분하지 않는다. 한 스레드에서만 쓰거나 호출하는 쪽의 잠금 안에서 쓴다.
+public class CandidateSet {
+    private static final int SIZE = Board.SIZE;
+    private static final int CELLS = SIZE * SIZE;
+    private static final int WORDS = (CELLS + 63) >>> 6;
+    private static final int DISTANCE = 2;
+
+    private final long[] candidates = new long[WORDS];
+    private final long[] occupied = new long[WORDS];
+    private final int[] nearCount = new int[CELLS]; // 두 칸 안에 있는 돌 수
+    private int stones = 0;
+
+    public void clear() {
+        Arrays.fill(candidates, 0);
+        Arrays.fill(occupied, 0);
+        Arrays.fill(nearCount, 0);
+        stones = 0;
+    }
+
+    // 보드의 돌로 다시 채운다.
+    public void reset(Board board) {
+        clear();
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (!board.isEmpty(cell / SIZE, cell % SIZE)) place(cell);
+        }
+    }
+
+    // cell에 돌이 놓였다.
+    public void place(int cell) {
+        if (isSet(occupied, cell)) return;
+        set(occupied, cell);
+        clearBit(candidates, cell);
+        stones++;
+        int row = cell / SIZE, col = cell % SIZE;
+        for (int r = Math.max(0, row - DISTANCE); r <= Math.min(SIZE - 1, row + DISTANCE); r++) {
+            for (int c = Math.max(0, col - DISTANCE); c <= Math.min(SIZE - 1, col + DISTANCE); c++) {
+                int near = r * SIZE + c;
+                if (nearCount[near]++ == 0 && !isSet(occupied, near)) set(candidates, near);
+            }
+        }
+    }
+
+    // cell의 돌이 빠졌다. (무르기, 탐색에서 되돌리기)
+    public void remove(int cell) {
+        if (!isSet(occupied, cell)) return;
+        clearBit(occupied, cell);
+        stones--;
+        int row = cell / SIZE, col = cell % SIZE;
+        for (int r = Math.max(0, row - DISTANCE); r <= Math.min(SIZE - 1, row + DISTANCE); r++) {
+            for (int c = Math.max(0, col - DISTANCE); c <= Math.min(SIZE - 1, col + DISTANCE); c++) {
+                int near = r * SIZE + c;
+                if (--nearCount[near] == 0) clearBit(candidates, near);
+            }
+        }
+        if (nearCount[cell] > 0) set(candidates, cell);
+    }
+
+    // 판에 돌이 하나도 없는지. 이때는 후보도 없다.
+    public boolean hasNoStones() {
+        return stones == 0;
+    }
+
+    public int size() {
+        int count = 0;
+        for (long word : candidates) count += Long.bitCount(word);
+        return count;
+    }
+
+    public boolean contains(int cell) {
+        return isSet(candidates, cell);
+    }
+
+    // from 이상인 첫 후보. 없으면 -1
+    // 예) for (int cell = set.next(0); cell >= 0; cell = set.next(cell + 1))
+    public int next(int from) {
+        if (from >= CELLS) return -1;
+        int word = from >>> 6;
+        long bits = candidates[word] & (-1L << (from & 63));
+        while (true) {
+            if (bits != 0) return (word << 6) + Long.numberOfTrailingZeros(bits);
+            if (++word == WORDS) return -1;
+            bits = candidates[word];
+        }
+    }
+
+    // index번째(0부터) 후보. 무작위로 하나 고를 때 쓴다. 없으면 -1
+    public int get(int index) {
+        for (int word = 0; word < WORDS; word++) {
+            long bits = candidates[word];
+            int count = Long.bitCount(bits);
+            if (index >= count) {
+                index -= count;
+                continue;
+            }
+            for (int i = 0; i < index; i++) bits &= bits - 1; // 아래 비트부터 지운다
+            return (word << 6) + Long.numberOfTrailingZeros(bits);
+        }
+        return -1;
+    }
+
+    private static boolean isSet(long[] bits, int cell) {
+        return (bits[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    private static void set(long[] bits, int cell) {
+        bits[cell >>> 6] |= 1L << cell;
+    }
+
+    private static void clearBit(long[] bits, int cell) {
+        bits[cell >>> 6] &= ~(1L << cell);
+    }
+}
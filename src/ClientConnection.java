@@ -0,0 +1,224 @@
+import javax.swing.*;
+import java.io.*;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+// 클라이언트 쪽 서버 연결. 소켓은 전용 스레드 두 개만 만진다.
+//   client-reader  접속과 재접속, 프레임 읽기
+//   client-writer  보낼 메시지 큐를 비우며 쓰기
+// send()는 큐에 넣기만 하므로 EDT에서 불러도 멈추지 않는다. 받은 메시지는 모아 두었다가
+// invokeLater 한 번으로 EDT에 넘긴다. 그 사이에 더 도착한 메시지는 같은 묶음에 실린다.
+// 서버가 SESSION으로 재접속 토큰을 줬으면 끊겼을 때 RECONNECT_ATTEMPTS번까지 다시 접속해
+// 다른 메시지보다 먼저 RESUME을 보낸다. 마지막으로 받은 보드 순번을 함께 보내 놓친 변경분만 받는다.
+public class ClientConnection {
+    private static final int RECONNECT_ATTEMPTS = 30;
+    private static final long RECONNECT_DELAY_MS = 2000;
+
+    // 모든 콜백은 EDT에서 받은 순서대로 호출된다.
+    public interface Listener {
+        void onMessage(Message message);
+
+        // 연결이 끊겨 다시 접속하는 중
+        void onReconnecting();
+
+        // 연결이 완전히 끊겼다. 결과를 받은 뒤 서버가 닫은 경우에도 호출된다.
+        void onDisconnected(IOException cause);
+    }
+
+    private final String serverAddress;
+    private final int port;
+    private final Listener listener;
+    private final BlockingQueue<Message> outbox = new LinkedBlockingQueue<>();
+    private final ReentrantLock writeLock = new ReentrantLock(); // 소켓 교체와 프레임 쓰기를 묶는다
+    private Socket socket;
+    private DataInputStream input;
+    private DataOutputStream output;
+    private FrameCodec codec;
+    private volatile String resumeToken = null;
+    private volatile int boardSeq = -1; // 읽기 스레드만 바꾼다. 중간 변경분을 놓쳤으면 -1
+    private volatile boolean finished = false; // 결과를 받았거나 close()했으면 다시 접속하지 않는다
+    private volatile Thread writer;
+
+    private List<Message> inbox = new ArrayList<>(); // EDT로 넘길 메시지. inboxLock으로 보호한다
+    private final Object inboxLock = new Object();
+
+    public ClientConnection(String serverAddress, int port, Listener listener) {
+        this.serverAddress = serverAddress;
+        this.port = port;
+        this.listener = listener;
+    }
+
+    // 접속을 시작한다. greeting은 접속하자마자 보낼 메시지 (HELLO, LOGIN 등)
+    public void start(Message... greeting) {
+        for (Message message : greeting) outbox.add(message);
+        Thread.ofPlatform().name("client-reader").daemon(true).start(this::readLoop);
+    }
+
+    // 보낼 메시지를 큐에 넣는다. 접속 전이나 재접속 중이면 연결된 뒤에 보낸다.
+    public void send(Message message) {
+        if (!finished) outbox.add(message);
+    }
+
+    public void close() {
+        finished = true;
+        Thread current = writer;
+        if (current != null) current.interrupt();
+        writeLock.lock();
+        try {
+            if (socket != null) socket.close();
+        } catch (IOException e) {
+            // 이미 닫혔다.
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void readLoop() {
+        IOException cause;
+        try {
+            openSocket(false);
+        } catch (IOException e) {
+            finished = true;
+            post(() -> listener.onDisconnected(e));
+            return;
+        }
+        writer = Thread.ofPlatform().name("client-writer").daemon(true).start(this::writeLoop);
+
+        while (true) {
+            try {
+                readFrames();
+            } catch (IOException e) {
+                cause = e;
+                if (finished || resumeToken == null) break;
+                System.out.println("Connection lost: " + e.getMessage());
+                post(listener::onReconnecting);
+                if (!reconnect()) break;
+            }
+        }
+        finished = true;
+        writer.interrupt();
+        IOException reason = cause;
+        post(() -> listener.onDisconnected(reason));
+    }
+
+    private void readFrames() throws IOException {
+        DataInputStream in;
+        FrameCodec frameCodec;
+        writeLock.lock();
+        try {
+            in = input;
+            frameCodec = codec;
+        } finally {
+            writeLock.unlock();
+        }
+        while (true) {
+            int length = in.readUnsignedShort();
+            byte[] frame = new byte[2 + length];
+            frame[0] = (byte) (length >> 8);
+            frame[1] = (byte) length;
+            in.readFully(frame, 2, length);
+            Message message = frameCodec.decode(frame);
+            if (message.type == MessageType.SESSION) resumeToken = message.text;
+            if (message.type == MessageType.BOARD) boardSeq = message.seq;
+            if (message.type == MessageType.BOARD_DELTA) {
+                boardSeq = boardSeq >= 0 && message.seq == boardSeq + 1 ? message.seq : -1;
+            }
+            if (message.type == MessageType.WIN || message.type == MessageType.LOSE
+                    || message.type == MessageType.DRAW) {
+                finished = true; // 곧 서버가 연결을 닫는다
+            }
+            deliver(message);
+        }
+    }
+
+    // resuming이면 큐에 쌓인 메시지보다 먼저 HELLO와 RESUME을 보낸다. 서버는 HELLO를 보고 바이너리로 바꾼 뒤
+    // RESUME을 받으므로 놓친 변경분을 바이너리로 보내 줄 수 있다.
+    private void openSocket(boolean resuming) throws IOException {
+        Socket opened = new Socket(serverAddress, port);
+        opened.setTcpNoDelay(true); // 쓰기 스레드가 이미 묶어서 보내므로 Nagle 지연은 필요 없다
+        writeLock.lock();
+        try {
+            socket = opened;
+            input = new DataInputStream(new BufferedInputStream(opened.getInputStream()));
+            output = new DataOutputStream(new BufferedOutputStream(opened.getOutputStream()));
+            codec = new FrameCodec();
+            if (resuming) {
+                output.write(codec.encode(Message.hello(FrameCodec.BINARY_VERSION)));
+                output.write(codec.encode(Message.resume(resumeToken, boardSeq)));
+                output.flush();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // 서버가 다시 뜨는 동안 몇 번 더 시도한다.
+    private boolean reconnect() {
+        for (int attempt = 1; attempt <= RECONNECT_ATTEMPTS && !finished; attempt++) {
+            try {
+                Thread.sleep(RECONNECT_DELAY_MS);
+                openSocket(true);
+                System.out.println("Reconnected to server (attempt " + attempt + ").");
+                return true;
+            } catch (IOException e) {
+                System.out.println("Reconnect attempt " + attempt + " failed: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return false;
+    }
+
+    // 큐에 쌓인 메시지를 한 번에 쓰고 flush한다. 쓰다 실패한 메시지는 버린다.
+    // 끊긴 것은 읽기 스레드가 알아채고 다시 접속한다.
+    private void writeLoop() {
+        List<Message> batch = new ArrayList<>();
+        try {
+            while (!finished) {
+                batch.add(outbox.take());
+                outbox.drainTo(batch);
+                writeLock.lock();
+                try {
+                    for (Message message : batch) output.write(codec.encode(message));
+                    output.flush();
+                } catch (IOException e) {
+                    System.out.println("Send failed: " + e.getMessage());
+                } finally {
+                    writeLock.unlock();
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 묶음이 비어 있을 때만 EDT 작업을 하나 예약한다.
+    private void deliver(Message message) {
+        boolean schedule;
+        synchronized (inboxLock) {
+            schedule = inbox.isEmpty();
+            inbox.add(message);
+        }
+        if (schedule) SwingUtilities.invokeLater(this::drain);
+    }
+
+    private void drain() {
+        List<Message> batch;
+        synchronized (inboxLock) {
+            batch = inbox;
+            inbox = new ArrayList<>();
+        }
+        for (Message message : batch) listener.onMessage(message);
+    }
+
+    // 앞서 받은 메시지가 모두 전달된 뒤에 실행된다.
+    private void post(Runnable event) {
+        SwingUtilities.invokeLater(event);
+    }
+}
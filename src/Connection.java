@@ -0,0 +1,34 @@
+import java.io.IOException;
+
+// 플레이어 한 명과의 연결. 블로킹 소켓과 NIO 소켓 모두 같은 방식으로 다룬다.
+// 프레임 형식은 연결마다 FrameCodec이 정한다. (기존 텍스트 또는 바이너리)
+public interface Connection {
+    String GUEST = "guest";
+
+    // 이 연결의 유일한 읽기 주체를 시작한다. 받은 프레임은 도착한 순서대로 listener에 전달된다.
+    // 리스너를 바꾸면 이후 프레임부터 새 리스너로 간다.
+    void startReading(FrameListener listener);
+
+    void send(Message message) throws IOException;
+
+    // FrameCodec.binaryFrame()으로 미리 만든 프레임을 그대로 보낸다. 바이너리로 협상한 연결에만 쓴다.
+    // 관전자처럼 같은 프레임을 여러 연결에 보낼 때 한 번만 인코딩하려고 쓴다.
+    void sendFrame(byte[] frame) throws IOException;
+
+    // 아직 소켓에 쓰지 못하고 쌓여 있는 프레임 수. 블로킹 연결은 다 쓴 뒤에 돌아오므로 항상 0이다.
+    int pendingFrames();
+
+    // 바이너리 프로토콜로 협상이 끝나 보드 변경분을 받을 수 있는 연결인지
+    boolean isBinary();
+
+    void close();
+
+    boolean isClosed();
+
+    String getRemoteAddress();
+
+    // LOGIN으로 받은 플레이어 이름. 보내지 않은 클라이언트는 GUEST다.
+    String getPlayerName();
+
+    void setPlayerName(String name);
+}
@@ -0,0 +1,553 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+// 연결 하나의 프레임 인코더/디코더.
+// 모든 프레임은 2바이트 길이 접두를 가진다. 그 뒤의 내용은 프로토콜 버전에 따라 다르다.
+//   버전 1 (텍스트): writeUTF()와 같은 modified UTF-8 문자열. 기존 클라이언트가 쓰는 형식이다.
+//   버전 2 (바이너리): 1바이트 opcode + 고정 길이 내용. 예) 착수 = [0x10][row][col]
+//     보드 스냅샷 = [0x11][seq 4바이트][칸당 2비트 91바이트]
+//     보드 변경분 = [0x15][seq 4바이트][개수][row][col][돌]... (착수 하나면 길이 접두까지 11바이트)
+//     시계 = [0x17][흑 남은 ms 4바이트][백 남은 ms 4바이트][차례 자리]
+//     기보 구간 요청 = [0x50][대국 4바이트][from 2바이트][to 2바이트] (to가 0xFFFF면 끝까지)
+//     기보 수 묶음 = [0x53][대국 4바이트][첫 수 번호 2바이트][개수][row][col][돌]...
+//     대국 목록 요청 = [0x55][개수][이름 UTF-8], 대국 목록 = [0x56][목록 UTF-8]
+//     순위표 요청 = [0x60][인원][이름 UTF-8], 순위표 = [0x61][순위 4바이트][레이팅 2바이트][목록 UTF-8]
+// 연결 직후에는 양쪽 모두 텍스트로 시작한다. 새 클라이언트가 "PROTOCOL:2"를 보내면
+// 그 다음 프레임부터 클라이언트→서버가 바이너리가 되고, 서버가 "PROTOCOL_OK:2"를 보낸
+// 다음 프레임부터 서버→클라이언트가 바이너리가 된다.
+public class FrameCodec {
+    public static final int TEXT_VERSION = 1;
+    public static final int BINARY_VERSION = 2;
+
+    private static final int BOARD_SIZE = 19;
+    private static final int MAX_PAYLOAD = 65535;
+    private static final String BOARD_PREFIX = "Current board:";
+    private static final String CHAT_PREFIX = "CHAT:";
+    private static final String HELLO_PREFIX = "PROTOCOL:";
+    private static final String HELLO_ACK_PREFIX = "PROTOCOL_OK:";
+    private static final String SESSION_PREFIX = "SESSION:";
+    private static final String RESUME_PREFIX = "RESUME:";
+    private static final String LOGIN_PREFIX = "LOGIN:";
+    private static final String WATCH_PREFIX = "WATCH:";
+    private static final String REPLAY_PREFIX = "REPLAY:";
+    private static final String REPLAY_SEEK_PREFIX = "REPLAY_SEEK:";
+    private static final String REPLAY_INFO_PREFIX = "REPLAY_INFO:";
+    private static final String REPLAY_MOVES_PREFIX = "REPLAY_MOVES:";
+    private static final String ARCHIVED_PREFIX = "ARCHIVED:";
+    private static final String CLOCK_PREFIX = "CLOCK:";
+    private static final String GAMES_PREFIX = "GAMES:";
+    private static final String GAMES_LIST_PREFIX = "GAMES_LIST:";
+    private static final String TOP_PREFIX = "TOP:";
+    private static final String LEADERBOARD_PREFIX = "LEADERBOARD:";
+
+    // 읽기는 한 스레드가, 쓰기는 호출자가 잡은 쓰기 잠금 안에서 바뀌므로 각각 volatile이면 충분하다.
+    private volatile boolean binaryInbound = false;
+    private volatile boolean binaryOutbound = false;
+
+    public boolean isBinaryOutbound() {
+        return binaryOutbound;
+    }
+
+    // 길이 접두를 포함한 프레임 전체를 메시지로 바꾼다.
+    public Message decode(byte[] frame) throws IOException {
+        Message message = binaryInbound ? decodeBinary(frame) : decodeText(frame);
+
+        // 상대가 바이너리로 바꾼다고 알렸으면 다음 프레임부터 바이너리로 읽는다.
+        if ((message.type == MessageType.HELLO || message.type == MessageType.HELLO_ACK)
+                && message.row >= BINARY_VERSION) {
+            binaryInbound = true;
+        }
+        return message;
+    }
+
+    // 메시지를 길이 접두를 포함한 프레임으로 만든다. 프레임 순서가 섞이지 않도록 쓰기 잠금 안에서 호출해야 한다.
+    public byte[] encode(Message message) throws IOException {
+        byte[] frame = binaryOutbound ? encodeBinary(message) : encodeText(message);
+
+        // 버전 협상 메시지는 텍스트로 보내고, 그 다음 프레임부터 바이너리로 쓴다.
+        if ((message.type == MessageType.HELLO || message.type == MessageType.HELLO_ACK)
+                && message.row >= BINARY_VERSION) {
+            binaryOutbound = true;
+        }
+        return frame;
+    }
+
+    // ---- 텍스트 (버전 1) ----
+
+    static String toText(Message message) {
+        // 1수 무르기는 기존 클라이언트가 알아듣도록 개수를 붙이지 않는다.
+        if (message.type.carriesDepth() && message.undoDepth() > 1) {
+            return message.type.text + ":" + message.undoDepth();
+        }
+        if (message.type.text != null) return message.type.text;
+
+        switch (message.type) {
+            case HELLO:
+                return HELLO_PREFIX + message.row;
+            case HELLO_ACK:
+                return HELLO_ACK_PREFIX + message.row;
+            case ROLE:
+            case NOTICE:
+                return message.text;
+            case MOVE:
+                return message.row + "," + message.col;
+            case CHAT:
+                return CHAT_PREFIX + message.text;
+            case SESSION:
+                return SESSION_PREFIX + message.text;
+            case RESUME:
+                return RESUME_PREFIX + message.text + (message.seq >= 0 ? ":" + message.seq : "");
+            case LOGIN:
+                return LOGIN_PREFIX + message.text;
+            case WATCH:
+                return WATCH_PREFIX + message.row;
+            case CLOCK:
+                return CLOCK_PREFIX + message.row + ":" + message.col + ":" + message.seq;
+            case BOARD_DELTA:
+                return appendChanges(new StringBuilder("DELTA:").append(message.seq), message.changes).toString();
+            case REPLAY_REQUEST:
+                return REPLAY_PREFIX + message.seq + ":" + message.row + ":" + message.col;
+            case REPLAY_SEEK:
+                return REPLAY_SEEK_PREFIX + message.seq + ":" + message.row;
+            case REPLAY_INFO:
+                return REPLAY_INFO_PREFIX + message.seq + ":" + message.row + ":" + message.col + ":" + message.text;
+            case REPLAY_MOVES: {
+                StringBuilder moves = new StringBuilder(REPLAY_MOVES_PREFIX).append(message.seq).append(':').append(message.row);
+                if (message.changes.length == 0) moves.append(':');
+                return appendChanges(moves, message.changes).toString();
+            }
+            case ARCHIVED:
+                return ARCHIVED_PREFIX + message.seq;
+            case GAMES_REQUEST:
+                return GAMES_PREFIX + message.row + ":" + message.text;
+            case GAMES_LIST:
+                return GAMES_LIST_PREFIX + message.text;
+            case LEADERBOARD_REQUEST:
+                return TOP_PREFIX + message.row + ":" + message.text;
+            case LEADERBOARD:
+                return LEADERBOARD_PREFIX + message.row + ":" + message.col + ":" + message.text;
+            case BOARD: {
+                StringBuilder boardState = new StringBuilder(BOARD_PREFIX.length() + 1 + BOARD_SIZE * (BOARD_SIZE + 1));
+                boardState.append(BOARD_PREFIX).append('\n');
+                for (int i = 0; i < BOARD_SIZE; i++) {
+                    boardState.append(message.cells, i * BOARD_SIZE, BOARD_SIZE).append('\n');
+                }
+                return boardState.toString();
+            }
+            default:
+                throw new IllegalArgumentException("No text form for " + message.type);
+        }
+    }
+
+    // ":row,col,돌;row,col,돌..." 형태로 덧붙인다.
+    private static StringBuilder appendChanges(StringBuilder text, byte[] changes) {
+        for (int i = 0; i < changes.length; i += 3) {
+            text.append(i == 0 ? ':' : ';').append(changes[i]).append(',')
+                    .append(changes[i + 1]).append(',').append((char) changes[i + 2]);
+        }
+        return text;
+    }
+
+    private static byte[] parseChanges(String text) {
+        if (text.isEmpty()) return new byte[0];
+        String[] items = text.split(";");
+        byte[] changes = new byte[items.length * 3];
+        for (int i = 0; i < items.length; i++) {
+            String[] parts = items[i].split(",");
+            changes[i * 3] = (byte) Integer.parseInt(parts[0].trim());
+            changes[i * 3 + 1] = (byte) Integer.parseInt(parts[1].trim());
+            changes[i * 3 + 2] = (byte) parts[2].trim().charAt(0);
+        }
+        return changes;
+    }
+
+    static Message fromText(String text) {
+        MessageType fixed = MessageType.fromText(text);
+        if (fixed != null) return Message.of(fixed);
+
+        if (text.startsWith(CHAT_PREFIX)) return Message.chat(text.substring(CHAT_PREFIX.length()));
+        if (text.startsWith(SESSION_PREFIX)) return Message.session(text.substring(SESSION_PREFIX.length()));
+        if (text.startsWith(LOGIN_PREFIX)) return Message.login(text.substring(LOGIN_PREFIX.length()));
+        if (text.equals("Player 1 (X).")) return Message.role(1);
+        if (text.equals("Player 2 (O).")) return Message.role(2);
+
+        // 아래는 누구나 보낼 수 있는 숫자와 줄을 읽으므로 형식이 틀리면 안내 문구로 돌린다.
+        try {
+            if (text.startsWith(BOARD_PREFIX)) return parseBoard(text);
+            if (text.startsWith(RESUME_PREFIX)) {
+                // 순번이 없는 예전 형식도 받는다. 토큰은 16진수라 ':'가 들어가지 않는다.
+                String[] parts = text.substring(RESUME_PREFIX.length()).split(":", 2);
+                return Message.resume(parts[0], parts.length > 1 ? Integer.parseInt(parts[1].trim()) : -1);
+            }
+            if (text.startsWith(HELLO_ACK_PREFIX)) {
+                return Message.helloAck(Integer.parseInt(text.substring(HELLO_ACK_PREFIX.length())));
+            }
+            if (text.startsWith(HELLO_PREFIX)) {
+                return Message.hello(Integer.parseInt(text.substring(HELLO_PREFIX.length())));
+            }
+            if (text.startsWith(CLOCK_PREFIX)) {
+                String[] parts = text.substring(CLOCK_PREFIX.length()).split(":");
+                return Message.clock(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+            }
+            if (text.startsWith(WATCH_PREFIX)) {
+                return Message.watch(Integer.parseInt(text.substring(WATCH_PREFIX.length()).trim()));
+            }
+            if (text.startsWith(GAMES_PREFIX)) {
+                String[] parts = text.substring(GAMES_PREFIX.length()).split(":", 2);
+                return Message.gamesRequest(Integer.parseInt(parts[0].trim()), parts.length > 1 ? parts[1] : "");
+            }
+            if (text.startsWith(GAMES_LIST_PREFIX)) return Message.gamesList(text.substring(GAMES_LIST_PREFIX.length()));
+            if (text.startsWith(TOP_PREFIX)) {
+                String[] parts = text.substring(TOP_PREFIX.length()).split(":", 2);
+                return Message.leaderboardRequest(Integer.parseInt(parts[0].trim()), parts.length > 1 ? parts[1] : "");
+            }
+            if (text.startsWith(LEADERBOARD_PREFIX)) {
+                String[] parts = text.substring(LEADERBOARD_PREFIX.length()).split(":", 3);
+                return Message.leaderboard(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), parts[2]);
+            }
+            if (text.startsWith(REPLAY_PREFIX)) {
+                String[] parts = text.substring(REPLAY_PREFIX.length()).split(":");
+                int to = parts.length > 2 ? Integer.parseInt(parts[2].trim()) : -1;
+                return Message.replayRequest(Integer.parseInt(parts[0].trim()),
+                        parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 0, to);
+            }
+            if (text.startsWith(REPLAY_SEEK_PREFIX)) {
+                String[] parts = text.substring(REPLAY_SEEK_PREFIX.length()).split(":");
+                return Message.replaySeek(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+            }
+            if (text.startsWith(REPLAY_INFO_PREFIX)) {
+                String[] parts = text.substring(REPLAY_INFO_PREFIX.length()).split(":", 6);
+                return Message.replayInfo(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]),
+                        Integer.parseInt(parts[2]), parts[3], parts[4], parts[5]);
+            }
+            if (text.startsWith(REPLAY_MOVES_PREFIX)) {
+                String[] parts = text.substring(REPLAY_MOVES_PREFIX.length()).split(":", 3);
+                return Message.replayMoves(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]),
+                        parseChanges(parts.length > 2 ? parts[2] : ""));
+            }
+            if (text.startsWith(ARCHIVED_PREFIX)) {
+                return Message.archived(Integer.parseInt(text.substring(ARCHIVED_PREFIX.length())));
+            }
+            int colon = text.indexOf(':');
+            if (colon > 0) {
+                MessageType type = MessageType.fromText(text.substring(0, colon));
+                if (type != null && type.carriesDepth()) {
+                    return Message.undo(type, Integer.parseInt(text.substring(colon + 1).trim()));
+                }
+            }
+            int comma = text.indexOf(',');
+            if (comma > 0) {
+                return Message.move(Integer.parseInt(text.substring(0, comma).trim()),
+                        Integer.parseInt(text.substring(comma + 1).trim()));
+            }
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            // 아래에서 안내 문구로 처리
+        }
+        return Message.notice(text);
+    }
+
+    // 첫 줄 다음에 19칸짜리 줄이 19개 있어야 한다. 모자라면 안내 문구로 돌린다.
+    private static Message parseBoard(String text) {
+        char[] cells = new char[BOARD_SIZE * BOARD_SIZE];
+        String[] rows = text.split("\n");
+        if (rows.length < BOARD_SIZE + 1) return Message.notice(text);
+        for (int i = 0; i < BOARD_SIZE; i++) {
+            if (rows[i + 1].length() < BOARD_SIZE) return Message.notice(text);
+            rows[i + 1].getChars(0, BOARD_SIZE, cells, i * BOARD_SIZE);
+        }
+        return Message.board(cells, -1); // 텍스트 보드에는 순번이 없다
+    }
+
+    private static byte[] encodeText(Message message) throws IOException {
+        String text = toText(message);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(text.length() + 2);
+        new DataOutputStream(bytes).writeUTF(text);
+        return bytes.toByteArray();
+    }
+
+    private static Message decodeText(byte[] frame) throws IOException {
+        return fromText(new DataInputStream(new ByteArrayInputStream(frame)).readUTF());
+    }
+
+    // ---- 바이너리 (버전 2) ----
+
+    // 연결 상태와 상관없이 바이너리 프레임을 만든다. Connection.sendFrame()으로 여러 연결에 그대로 보낼 때 쓴다.
+    static byte[] binaryFrame(Message message) throws IOException {
+        return encodeBinary(message);
+    }
+
+    private static byte[] encodeBinary(Message message) throws IOException {
+        switch (message.type) {
+            case MOVE:
+                return frame(message.type, (byte) message.row, (byte) message.col);
+            case UNDO_REQUEST:
+            case UNDO_RESPONSE_REQUIRED:
+            case UNDO_ACCEPTED:
+                return frame(message.type, (byte) message.undoDepth());
+            case ROLE:
+            case HELLO:
+            case HELLO_ACK:
+                return frame(message.type, (byte) message.row);
+            case CHAT:
+            case NOTICE:
+            case SESSION:
+            case LOGIN:
+                return frame(message.type, message.text.getBytes(StandardCharsets.UTF_8));
+            case RESUME: {
+                byte[] token = message.text.getBytes(StandardCharsets.UTF_8);
+                byte[] payload = new byte[4 + token.length];
+                putInt(payload, 0, message.seq);
+                System.arraycopy(token, 0, payload, 4, token.length);
+                return frame(message.type, payload);
+            }
+            case BOARD: {
+                // 칸당 2비트: 0 = 빈 칸, 1 = X, 2 = O
+                byte[] payload = new byte[4 + (BOARD_SIZE * BOARD_SIZE + 3) / 4];
+                putInt(payload, 0, message.seq);
+                for (int i = 0; i < message.cells.length; i++) {
+                    payload[4 + (i >> 2)] |= (byte) (cellCode(message.cells[i]) << ((i & 3) * 2));
+                }
+                return frame(message.type, payload);
+            }
+            case BOARD_DELTA: {
+                int count = message.changeCount();
+                byte[] payload = new byte[5 + count * 3];
+                putInt(payload, 0, message.seq);
+                payload[4] = (byte) count;
+                for (int i = 0; i < count; i++) {
+                    payload[5 + i * 3] = message.changes[i * 3];
+                    payload[6 + i * 3] = message.changes[i * 3 + 1];
+                    payload[7 + i * 3] = (byte) cellCode((char) message.changes[i * 3 + 2]);
+                }
+                return frame(message.type, payload);
+            }
+            case CLOCK: {
+                byte[] payload = new byte[9];
+                putInt(payload, 0, message.row);
+                putInt(payload, 4, message.col);
+                payload[8] = (byte) message.seq;
+                return frame(message.type, payload);
+            }
+            case REPLAY_REQUEST: {
+                byte[] payload = new byte[8];
+                putInt(payload, 0, message.seq);
+                putShort(payload, 4, message.row);
+                putShort(payload, 6, message.col < 0 ? 0xFFFF : message.col);
+                return frame(message.type, payload);
+            }
+            case REPLAY_SEEK: {
+                byte[] payload = new byte[6];
+                putInt(payload, 0, message.seq);
+                putShort(payload, 4, message.row);
+                return frame(message.type, payload);
+            }
+            case REPLAY_INFO: {
+                byte[] text = message.text.getBytes(StandardCharsets.UTF_8);
+                byte[] payload = new byte[7 + text.length];
+                putInt(payload, 0, message.seq);
+                putShort(payload, 4, message.row);
+                payload[6] = (byte) message.col;
+                System.arraycopy(text, 0, payload, 7, text.length);
+                return frame(message.type, payload);
+            }
+            case REPLAY_MOVES: {
+                int count = message.changeCount();
+                byte[] payload = new byte[7 + count * 3];
+                putInt(payload, 0, message.seq);
+                putShort(payload, 4, message.row);
+                payload[6] = (byte) count;
+                for (int i = 0; i < count; i++) {
+                    payload[7 + i * 3] = message.changes[i * 3];
+                    payload[8 + i * 3] = message.changes[i * 3 + 1];
+                    payload[9 + i * 3] = (byte) cellCode((char) message.changes[i * 3 + 2]);
+                }
+                return frame(message.type, payload);
+            }
+            case ARCHIVED: {
+                byte[] payload = new byte[4];
+                putInt(payload, 0, message.seq);
+                return frame(message.type, payload);
+            }
+            case WATCH: {
+                byte[] payload = new byte[4];
+                putInt(payload, 0, message.row);
+                return frame(message.type, payload);
+            }
+            case GAMES_REQUEST: {
+                byte[] name = message.text.getBytes(StandardCharsets.UTF_8);
+                byte[] payload = new byte[1 + name.length];
+                payload[0] = (byte) message.row;
+                System.arraycopy(name, 0, payload, 1, name.length);
+                return frame(message.type, payload);
+            }
+            case GAMES_LIST:
+                return frame(message.type, message.text.getBytes(StandardCharsets.UTF_8));
+            case LEADERBOARD_REQUEST: {
+                byte[] name = message.text.getBytes(StandardCharsets.UTF_8);
+                byte[] payload = new byte[1 + name.length];
+                payload[0] = (byte) message.row;
+                System.arraycopy(name, 0, payload, 1, name.length);
+                return frame(message.type, payload);
+            }
+            case LEADERBOARD: {
+                byte[] entries = message.text.getBytes(StandardCharsets.UTF_8);
+                byte[] payload = new byte[6 + entries.length];
+                putInt(payload, 0, message.row);
+                putShort(payload, 4, message.col);
+                System.arraycopy(entries, 0, payload, 6, entries.length);
+                return frame(message.type, payload);
+            }
+            default:
+                return frame(message.type);
+        }
+    }
+
+    private static Message decodeBinary(byte[] frame) throws IOException {
+        if (frame.length < 3) throw new IOException("Empty binary frame");
+        MessageType type = MessageType.fromOpcode(frame[2]);
+        if (type == null) throw new IOException("Unknown opcode: " + (frame[2] & 0xFF));
+
+        switch (type) {
+            case MOVE:
+                requireLength(frame, 2);
+                return Message.move(frame[3], frame[4]);
+            case UNDO_REQUEST:
+            case UNDO_RESPONSE_REQUIRED:
+            case UNDO_ACCEPTED:
+                return Message.undo(type, frame.length > 3 ? frame[3] & 0xFF : 1);
+            case ROLE:
+                requireLength(frame, 1);
+                return Message.role(frame[3]);
+            case HELLO:
+                requireLength(frame, 1);
+                return Message.hello(frame[3]);
+            case HELLO_ACK:
+                requireLength(frame, 1);
+                return Message.helloAck(frame[3]);
+            case CHAT:
+                return Message.chat(new String(frame, 3, frame.length - 3, StandardCharsets.UTF_8));
+            case NOTICE:
+                return Message.notice(new String(frame, 3, frame.length - 3, StandardCharsets.UTF_8));
+            case SESSION:
+                return Message.session(new String(frame, 3, frame.length - 3, StandardCharsets.UTF_8));
+            case RESUME:
+                requireLength(frame, 4);
+                return Message.resume(new String(frame, 7, frame.length - 7, StandardCharsets.UTF_8), getInt(frame, 3));
+            case LOGIN:
+                return Message.login(new String(frame, 3, frame.length - 3, StandardCharsets.UTF_8));
+            case BOARD: {
+                requireLength(frame, 4 + (BOARD_SIZE * BOARD_SIZE + 3) / 4);
+                char[] cells = new char[BOARD_SIZE * BOARD_SIZE];
+                for (int i = 0; i < cells.length; i++) {
+                    cells[i] = cellChar((frame[7 + (i >> 2)] >> ((i & 3) * 2)) & 3);
+                }
+                return Message.board(cells, getInt(frame, 3));
+            }
+            case BOARD_DELTA: {
+                requireLength(frame, 5);
+                int count = frame[7] & 0xFF;
+                requireLength(frame, 5 + count * 3);
+                byte[] changes = new byte[count * 3];
+                for (int i = 0; i < count; i++) {
+                    changes[i * 3] = frame[8 + i * 3];
+                    changes[i * 3 + 1] = frame[9 + i * 3];
+                    changes[i * 3 + 2] = (byte) cellChar(frame[10 + i * 3]);
+                }
+                return Message.delta(getInt(frame, 3), changes);
+            }
+            case CLOCK:
+                requireLength(frame, 9);
+                return Message.clock(getInt(frame, 3), getInt(frame, 7), frame[11]);
+            case REPLAY_REQUEST: {
+                requireLength(frame, 8);
+                int to = getShort(frame, 9);
+                return Message.replayRequest(getInt(frame, 3), getShort(frame, 7), to == 0xFFFF ? -1 : to);
+            }
+            case REPLAY_SEEK:
+                requireLength(frame, 6);
+                return Message.replaySeek(getInt(frame, 3), getShort(frame, 7));
+            case REPLAY_INFO: {
+                requireLength(frame, 7);
+                String[] text = new String(frame, 10, frame.length - 10, StandardCharsets.UTF_8).split(":", 3);
+                if (text.length < 3) throw new IOException("Malformed replay info");
+                return Message.replayInfo(getInt(frame, 3), getShort(frame, 7), frame[9], text[0], text[1], text[2]);
+            }
+            case REPLAY_MOVES: {
+                requireLength(frame, 7);
+                int count = frame[9] & 0xFF;
+                requireLength(frame, 7 + count * 3);
+                byte[] changes = new byte[count * 3];
+                for (int i = 0; i < count; i++) {
+                    changes[i * 3] = frame[10 + i * 3];
+                    changes[i * 3 + 1] = frame[11 + i * 3];
+                    changes[i * 3 + 2] = (byte) cellChar(frame[12 + i * 3]);
+                }
+                return Message.replayMoves(getInt(frame, 3), getShort(frame, 7), changes);
+            }
+            case ARCHIVED:
+                requireLength(frame, 4);
+                return Message.archived(getInt(frame, 3));
+            case WATCH:
+                requireLength(frame, 4);
+                return Message.watch(getInt(frame, 3));
+            case GAMES_REQUEST:
+                requireLength(frame, 1);
+                return Message.gamesRequest(frame[3] & 0xFF, new String(frame, 4, frame.length - 4, StandardCharsets.UTF_8));
+            case GAMES_LIST:
+                return Message.gamesList(new String(frame, 3, frame.length - 3, StandardCharsets.UTF_8));
+            case LEADERBOARD_REQUEST:
+                requireLength(frame, 1);
+                return Message.leaderboardRequest(frame[3] & 0xFF, new String(frame, 4, frame.length - 4, StandardCharsets.UTF_8));
+            case LEADERBOARD:
+                requireLength(frame, 6);
+                return Message.leaderboard(getInt(frame, 3), getShort(frame, 7),
+                        new String(frame, 9, frame.length - 9, StandardCharsets.UTF_8));
+            default:
+                return Message.of(type);
+        }
+    }
+
+    private static byte[] frame(MessageType type, byte... payload) throws IOException {
+        int length = 1 + payload.length;
+        if (length > MAX_PAYLOAD) throw new IOException("Frame too large: " + length);
+        byte[] frame = new byte[2 + length];
+        frame[0] = (byte) (length >> 8);
+        frame[1] = (byte) length;
+        frame[2] = (byte) type.opcode;
+        System.arraycopy(payload, 0, frame, 3, payload.length);
+        return frame;
+    }
+
+    private static void putInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >> 24);
+        bytes[offset + 1] = (byte) (value >> 16);
+        bytes[offset + 2] = (byte) (value >> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    private static void putShort(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >> 8);
+        bytes[offset + 1] = (byte) value;
+    }
+
+    private static int getShort(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+    }
+
+    private static int getInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16)
+                | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+
+    private static void requireLength(byte[] frame, int payloadLength) throws IOException {
+        if (frame.length < 3 + payloadLength) throw new IOException("Truncated binary frame");
+    }
+
+    private static int cellCode(char cell) {
+        return cell == 'X' ? 1 : cell == 'O' ? 2 : 0;
+    }
+
+    private static char cellChar(int code) {
+        return code == 1 ? 'X' : code == 2 ? 'O' : '.';
+    }
+}
@@ -0,0 +1,7 @@
+// 연결에서 읽은 메시지를 받는 쪽
+public interface FrameListener {
+    void onFrame(Connection from, Message message);
+
+    // 연결이 끊기거나 닫혔을 때 한 번 호출된다.
+    void onClose(Connection from);
+}
@@ -0,0 +1,307 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+// 끝난 대국을 모아 두는 바이너리 보관소. 디렉터리 하나에 세 파일을 둔다.
+//   games.dat   머리 16바이트 [매직][버전][데이터 끝 위치] 뒤로 대국이 이어진다.
+//               대국 하나 = 머리 40바이트 + 수마다 2바이트. 수는 MoveStack과 같은 (칸 번호 << 1) | 색
+//   games.idx   머리 16바이트 [매직][버전][대국 수] 뒤로 대국 번호 순서대로 games.dat 안의 위치(8바이트)
+//   players.txt 플레이어 이름을 한 줄에 하나씩. 줄 번호(0부터)가 플레이어 번호다.
+//               새 이름은 그 이름을 쓰는 대국보다 먼저 디스크에 내리므로, 보관된 대국의 플레이어 번호는 항상 이 파일에 있다.
+// games.dat과 games.idx는 MappedFile로 매핑해서 읽으므로 대국 하나를 꺼낼 때 힙으로 복사하지 않는다.
+// 플레이어별 색인은 대국 머리마다 그 플레이어의 직전 대국 번호를 넣어 이은 연결 리스트이고,
+// 메모리에는 플레이어마다 마지막 대국 번호만 둔다.
+public class GameArchive implements Closeable {
+    private static final int DATA_MAGIC = 0x474D4144;  // "GMAD"
+    private static final int INDEX_MAGIC = 0x474D4958; // "GMIX"
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER = 16;
+
+    // 대국 머리 안의 위치
+    private static final int GAME_ID = 0;
+    private static final int STARTED_AT = 4;
+    private static final int ENDED_AT = 12;
+    private static final int RULES = 20;
+    private static final int RESULT = 21;
+    private static final int MOVE_COUNT = 22;
+    private static final int PLAYERS = 24;       // 흑, 백 플레이어 번호 (int 두 개)
+    private static final int PREVIOUS_GAMES = 32; // 흑, 백 각자의 직전 대국 번호 (int 두 개, 없으면 0)
+    private static final int GAME_HEADER = 40;
+
+    private final MappedFile data;
+    private final MappedFile index;
+    private final FileChannel playersFile;
+    private long playersEnd;       // players.txt에서 다음 이름을 쓸 위치
+    private boolean playersDirty;  // 아직 디스크에 내리지 않은 이름이 있는지
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Integer> playerIds = new HashMap<>();
+    private final List<String> playerNames = new ArrayList<>();
+    private int[] lastGameOfPlayer = new int[16];
+    private long dataEnd;
+    private volatile int gameCount;
+
+    private GameArchive(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        boolean created = !Files.exists(directory.resolve("games.idx"));
+        data = new MappedFile(directory.resolve("games.dat"));
+        index = new MappedFile(directory.resolve("games.idx"));
+        Path players = directory.resolve("players.txt");
+
+        if (created) {
+            data.putInt(0, DATA_MAGIC);
+            data.putInt(4, VERSION);
+            data.putLong(8, FILE_HEADER);
+            index.putInt(0, INDEX_MAGIC);
+            index.putInt(4, VERSION);
+            index.putInt(8, 0);
+            data.force(0, FILE_HEADER);
+            index.force(0, FILE_HEADER);
+        } else if (data.getInt(0) != DATA_MAGIC || index.getInt(0) != INDEX_MAGIC) {
+            throw new IOException("Not a game archive: " + directory);
+        }
+        dataEnd = data.getLong(8);
+        gameCount = index.getInt(8);
+
+        // 줄바꿈으로 끝나지 않은 마지막 줄은 쓰다 만 이름이다. 그 이름을 쓰는 대국은 커밋되지 않았으므로 잘라 낸다.
+        byte[] names = Files.exists(players) ? Files.readAllBytes(players) : new byte[0];
+        int complete = names.length;
+        while (complete > 0 && names[complete - 1] != '\n') complete--;
+        if (complete > 0) {
+            for (String name : new String(names, 0, complete - 1, StandardCharsets.UTF_8).split("\n", -1)) {
+                if (!name.isEmpty()) playerIds.put(name, playerNames.size()); // 빈 줄은 이름을 잃은 번호다
+                playerNames.add(name);
+            }
+        }
+        playersFile = FileChannel.open(players, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        playersFile.truncate(complete);
+        playersEnd = complete;
+
+        // 플레이어별 마지막 대국을 다시 찾는다. 대국 머리의 두 int만 읽는다.
+        // 예전 보관소는 players.txt보다 큰 번호를 담고 있을 수 있으므로 머리에서 본 가장 큰 번호에 맞춰 늘리고,
+        // 이름을 잃은 번호는 빈 줄로 채워 새 이름이 그 번호를 다시 받지 않게 한다.
+        lastGameOfPlayer = new int[Math.max(16, playerNames.size())];
+        int maxPlayerId = playerNames.size() - 1;
+        for (int gameId = 1; gameId <= gameCount; gameId++) {
+            long offset = offsetOf(gameId);
+            for (int seat = 0; seat < 2; seat++) {
+                int playerId = data.getInt(offset + PLAYERS + seat * 4);
+                if (playerId >= lastGameOfPlayer.length) {
+                    lastGameOfPlayer = Arrays.copyOf(lastGameOfPlayer, Math.max(playerId + 1, lastGameOfPlayer.length * 2));
+                }
+                lastGameOfPlayer[playerId] = gameId;
+                maxPlayerId = Math.max(maxPlayerId, playerId);
+            }
+        }
+        if (maxPlayerId >= playerNames.size()) {
+            while (playerNames.size() <= maxPlayerId) {
+                playersEnd += playersFile.write(ByteBuffer.wrap(new byte[] {'\n'}), playersEnd);
+                playerNames.add("");
+            }
+            playersFile.force(false);
+        }
+    }
+
+    // 보관하지 않을 때 쓰는 빈 보관소
+    private GameArchive() {
+        data = null;
+        index = null;
+        playersFile = null;
+    }
+
+    public static GameArchive open(Path directory) throws IOException {
+        return new GameArchive(directory);
+    }
+
+    public static GameArchive disabled() {
+        return new GameArchive();
+    }
+
+    // 끝난 대국 하나를 덧붙이고 대국 번호를 돌려준다. 보관하지 않으면 0
+    // 데이터와 색인을 먼저 디스크에 내린 뒤 머리의 끝 위치와 대국 수를 늘리므로,
+    // 중간에 죽으면 그 대국은 없었던 것이 되고 다음 대국이 그 자리를 덮어쓴다.
+    public int append(long startedAt, long endedAt, RuleSet rules, byte result,
+                      String black, String white, MoveStack moves) throws IOException {
+        if (data == null) return 0;
+        lock.lock();
+        try {
+            int gameId = gameCount + 1;
+            int blackId = playerId(black);
+            int whiteId = playerId(white);
+            if (playersDirty) {
+                playersFile.force(false); // 이 대국보다 이름이 먼저 디스크에 있어야 한다
+                playersDirty = false;
+            }
+
+            int size = GAME_HEADER + moves.size() * 2;
+            long offset = dataEnd;
+            if (offset % MappedFile.SEGMENT + size > MappedFile.SEGMENT) {
+                offset = (offset / MappedFile.SEGMENT + 1) * MappedFile.SEGMENT; // 조각 경계를 넘지 않게
+            }
+
+            data.putInt(offset + GAME_ID, gameId);
+            data.putLong(offset + STARTED_AT, startedAt);
+            data.putLong(offset + ENDED_AT, endedAt);
+            data.put(offset + RULES, (byte) rules.ordinal());
+            data.put(offset + RESULT, result);
+            data.putShort(offset + MOVE_COUNT, (short) moves.size());
+            data.putInt(offset + PLAYERS, blackId);
+            data.putInt(offset + PLAYERS + 4, whiteId);
+            data.putInt(offset + PREVIOUS_GAMES, lastGameOfPlayer[blackId]);
+            data.putInt(offset + PREVIOUS_GAMES + 4, lastGameOfPlayer[whiteId]);
+            for (int i = 0; i < moves.size(); i++) {
+                data.putShort(offset + GAME_HEADER + i * 2L, (short) moves.get(i));
+            }
+            long indexPosition = FILE_HEADER + (gameId - 1) * 8L;
+            index.putLong(indexPosition, offset);
+            data.force(offset, size);
+            index.force(indexPosition, 8);
+
+            dataEnd = offset + size;
+            data.putLong(8, dataEnd);
+            index.putInt(8, gameId);
+            data.force(0, FILE_HEADER);
+            index.force(0, FILE_HEADER);
+
+            lastGameOfPlayer[blackId] = gameId;
+            lastGameOfPlayer[whiteId] = gameId;
+            gameCount = gameId;
+            return gameId;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 잠금 안에서 호출한다. 처음 보는 이름이면 players.txt에 덧붙인다.
+    private int playerId(String name) throws IOException {
+        Integer id = playerIds.get(name);
+        if (id != null) return id;
+
+        id = playerNames.size();
+        ByteBuffer line = ByteBuffer.wrap((name + "\n").getBytes(StandardCharsets.UTF_8));
+        while (line.hasRemaining()) playersEnd += playersFile.write(line, playersEnd);
+        playersDirty = true;
+        playerIds.put(name, id);
+        playerNames.add(name);
+        if (id >= lastGameOfPlayer.length) {
+            lastGameOfPlayer = Arrays.copyOf(lastGameOfPlayer, Math.max(id + 1, lastGameOfPlayer.length * 2));
+        }
+        return id;
+    }
+
+    public int getGameCount() {
+        return gameCount;
+    }
+
+    // 대국 번호로 꺼낸다. 없는 번호면 null
+    public Game get(int gameId) {
+        if (gameId < 1 || gameId > gameCount) return null;
+        return new Game(offsetOf(gameId));
+    }
+
+    // 플레이어의 대국 번호를 최근 것부터 limit개까지
+    public int[] gamesOf(String player, int limit) {
+        int gameId;
+        int playerId;
+        lock.lock();
+        try {
+            Integer id = playerIds.get(player);
+            if (id == null) return new int[0];
+            playerId = id;
+            gameId = lastGameOfPlayer[playerId];
+        } finally {
+            lock.unlock();
+        }
+
+        int[] games = new int[Math.min(limit, 64)];
+        int count = 0;
+        while (gameId != 0 && count < limit) {
+            if (count == games.length) games = Arrays.copyOf(games, Math.min(limit, count * 2));
+            games[count++] = gameId;
+            long offset = offsetOf(gameId);
+            int seat = data.getInt(offset + PLAYERS) == playerId ? 0 : 1;
+            gameId = data.getInt(offset + PREVIOUS_GAMES + seat * 4);
+        }
+        return Arrays.copyOf(games, count);
+    }
+
+    public String playerName(int playerId) {
+        lock.lock();
+        try {
+            String name = playerId < playerNames.size() ? playerNames.get(playerId) : "";
+            return name.isEmpty() ? Connection.GUEST : name;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long offsetOf(int gameId) {
+        return index.getLong(FILE_HEADER + (gameId - 1) * 8L);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (data == null) return;
+        lock.lock();
+        try {
+            playersFile.close();
+            data.close();
+            index.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 보관된 대국 하나. 매핑된 파일을 그 자리에서 읽기만 하고 내용을 복사해 두지 않는다.
+    public final class Game {
+        private final long offset;
+
+        private Game(long offset) {
+            this.offset = offset;
+        }
+
+        public int id() {
+            return data.getInt(offset + GAME_ID);
+        }
+
+        public long startedAt() {
+            return data.getLong(offset + STARTED_AT);
+        }
+
+        public long endedAt() {
+            return data.getLong(offset + ENDED_AT);
+        }
+
+        public RuleSet rules() {
+            return RuleSet.values()[data.get(offset + RULES)];
+        }
+
+        // GameJournal.RESULT_* 중 하나
+        public byte result() {
+            return data.get(offset + RESULT);
+        }
+
+        public int moveCount() {
+            return data.getShort(offset + MOVE_COUNT) & 0xFFFF;
+        }
+
+        // index번째(0부터) 수. MoveStack.rowOf/colOf/stoneOf로 푼다.
+        public int move(int index) {
+            return data.getShort(offset + GAME_HEADER + index * 2L) & 0xFFFF;
+        }
+
+        // seat: 0 = 흑, 1 = 백
+        public String playerName(int seat) {
+            return GameArchive.this.playerName(data.getInt(offset + PLAYERS + seat * 4));
+        }
+    }
+}
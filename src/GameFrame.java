@@ -1,7 +1,6 @@
 import javax.swing.*;
 import javax.swing.border.AbstractBorder;
 import java.awt.*;
-import java.io.InputStream;
 
 public class GameFrame extends JFrame {
     private Font customFont;
@@ -16,9 +15,7 @@ public class GameFrame extends JFrame {
         // 배경 이미지 추가
         JLabel background = new JLabel();
         try {
-            ImageIcon bgIcon = new ImageIcon(getClass().getResource("/images/background.jpg"));
-            Image scaledImage = bgIcon.getImage().getScaledInstance(800, 600, Image.SCALE_SMOOTH);
-            background.setIcon(new ImageIcon(scaledImage));
+            background.setIcon(Resources.icon("/images/background.jpg", 800, 600));
         } catch (Exception e) {
             System.err.println("배경 이미지를 로드할 수 없습니다: " + e.getMessage());
         }
@@ -26,7 +23,7 @@ public class GameFrame extends JFrame {
         add(background);
 
         // 폰트 로드
-        customFont = loadCustomFont("/fonts/CookieRun Regular.otf", 16f);
+        customFont = Resources.font("/fonts/CookieRun Regular.otf", 16f);
 
         // 제목 레이블
         JLabel titleLabel = new JLabel("콩알콩알 오목 게임", SwingConstants.CENTER);
@@ -54,18 +51,21 @@ public class GameFrame extends JFrame {
         background.add(exitButton); // 배경 위에 추가
 
         // 왼쪽 GIF 추가
-        JLabel leftGif = new JLabel(new ImageIcon(getClass().getResource("/images/bunny.gif")));
+        JLabel leftGif = new JLabel(Resources.animation("/images/bunny.gif"));
         leftGif.setBounds(50, 30, 200, 200); // GIF의 위치와 크기 설정
         background.add(leftGif);
 
         // 오른쪽 GIF 추가
-        JLabel rightGif = new JLabel(new ImageIcon(getClass().getResource("/images/bear.gif")));
+        JLabel rightGif = new JLabel(Resources.animation("/images/bear.gif"));
         rightGif.setBounds(550, 30, 200, 200); // GIF의 위치와 크기 설정
         background.add(rightGif);
 
         // 이벤트 핸들러
         startGameButton.addActionListener(e -> {
-            new GomokuClient("localhost", 5000);
+            // 닉네임은 대국 기록에 남는다. 비워 두면 guest로 들어간다.
+            String name = JOptionPane.showInputDialog(this, "닉네임을 입력하세요", System.getProperty("user.name"));
+            if (name == null) return;
+            new GomokuClient("localhost", 5000, name.trim());
         });
 
         howToPlayButton.addActionListener(e -> {
@@ -88,20 +88,6 @@ public class GameFrame extends JFrame {
     }
 
 
-    private Font loadCustomFont(String path, float size) {
-        try {
-            InputStream fontStream = getClass().getResourceAsStream(path);
-            if (fontStream == null) {
-                System.err.println("폰트 파일을 찾을 수 없습니다: " + path);
-                return null;
-            }
-            return Font.createFont(Font.TRUETYPE_FONT, fontStream).deriveFont(size);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
-        }
-    }
-
     class RoundedButton extends JButton {
         private final int radius;
 
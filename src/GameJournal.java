@@ -0,0 +1,279 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// 진행 중인 대국을 서버가 죽어도 되살릴 수 있도록 남기는 추가 전용 기록 파일.
+// 레코드 하나는 [길이 4바이트][종류 1바이트][내용]이다.
+//   START [방 번호][시작 시각][규칙][흑/백 토큰][흑/백 이름]   MOVE [방 번호][row][col][돌]
+//   UNDO  [방 번호][개수]                    END  [방 번호][결과]
+// append는 메모리 버퍼에 쌓기만 하고, journal 스레드가 commitWindowMillis마다 모아서 한 번에
+// 쓰고 fsync한다(그룹 커밋). 서버가 갑자기 죽으면 마지막 창 안의 기록만 잃는다.
+// 정상 종료할 때는 close()가 남은 기록을 마저 쓴다.
+public class GameJournal implements Closeable {
+    static final byte START = 1;
+    static final byte MOVE = 2;
+    static final byte UNDO = 3;
+    static final byte END = 4;
+    private static final int MAX_RECORD = 1024;
+
+    // END 레코드의 결과
+    public static final byte RESULT_DRAW = 0;
+    public static final byte RESULT_BLACK_WIN = 1;
+    public static final byte RESULT_WHITE_WIN = 2;
+    public static final byte RESULT_ABANDONED = 3;
+
+    private final FileChannel channel;
+    private final long commitWindowMillis;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pendingWrites = lock.newCondition();
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private ByteArrayOutputStream spare = new ByteArrayOutputStream();
+    private boolean closed = false;
+    private final Thread writer;
+
+    // 되살린 방 하나의 기록
+    public static class RoomRecord {
+        public final int roomId;
+        public final RuleSet rules;
+        public final long startedAt;
+        public final String[] tokens; // [흑, 백]
+        public final String[] names;  // [흑, 백]
+        public final MoveStack moves = new MoveStack();
+        boolean finished = false;
+
+        RoomRecord(int roomId, long startedAt, RuleSet rules, String[] tokens, String[] names) {
+            this.roomId = roomId;
+            this.startedAt = startedAt;
+            this.rules = rules;
+            this.tokens = tokens;
+            this.names = names;
+        }
+    }
+
+    private GameJournal(Path path, long commitWindowMillis) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        this.commitWindowMillis = commitWindowMillis;
+        this.writer = Thread.ofPlatform().name("journal").daemon(true).unstarted(this::writeLoop);
+    }
+
+    // 기록을 남기지 않을 때 쓰는 빈 기록기. 모든 append를 버린다.
+    private GameJournal() {
+        this.channel = null;
+        this.commitWindowMillis = 0;
+        this.writer = null;
+        this.closed = true;
+    }
+
+    public static GameJournal disabled() {
+        return new GameJournal();
+    }
+
+    // 기록 파일을 읽어 끝나지 않은 방을 돌려주고, 그 방들의 기록만 남기도록 파일을 새로 쓴 뒤 연다.
+    // 끝이 잘린 마지막 레코드는 무시한다.
+    public static GameJournal open(Path path, long commitWindowMillis, Map<Integer, RoomRecord> recovered)
+            throws IOException {
+        if (Files.exists(path)) {
+            recover(path, recovered);
+            compact(path, recovered);
+        }
+        GameJournal journal = new GameJournal(path, commitWindowMillis);
+        journal.writer.start();
+        return journal;
+    }
+
+    public void start(int roomId, long startedAt, RuleSet rules, String[] tokens, String[] names) {
+        append(startRecord(roomId, startedAt, rules, tokens, names));
+    }
+
+    public void move(int roomId, int row, int col, char stone) {
+        append(moveRecord(roomId, row, col, stone));
+    }
+
+    public void undo(int roomId, int depth) {
+        append(record(UNDO, 5).putInt(roomId).put((byte) depth));
+    }
+
+    public void end(int roomId, byte result) {
+        append(record(END, 5).putInt(roomId).put(result));
+    }
+
+    private static ByteBuffer startRecord(int roomId, long startedAt, RuleSet rules, String[] tokens, String[] names) {
+        byte[][] strings = new byte[4][];
+        int length = 4 + 8 + 1;
+        for (int i = 0; i < 4; i++) {
+            strings[i] = (i < 2 ? tokens[i] : names[i - 2]).getBytes(StandardCharsets.UTF_8);
+            length += 1 + strings[i].length;
+        }
+        ByteBuffer record = record(START, length).putInt(roomId).putLong(startedAt).put((byte) rules.ordinal());
+        for (byte[] string : strings) record.put((byte) string.length).put(string);
+        return record;
+    }
+
+    private static ByteBuffer moveRecord(int roomId, int row, int col, char stone) {
+        return record(MOVE, 7).putInt(roomId).put((byte) row).put((byte) col).put((byte) stone);
+    }
+
+    private static ByteBuffer record(byte type, int payloadLength) {
+        ByteBuffer record = ByteBuffer.allocate(4 + 1 + payloadLength);
+        record.putInt(1 + payloadLength).put(type);
+        return record;
+    }
+
+    private void append(ByteBuffer record) {
+        lock.lock();
+        try {
+            if (closed) return;
+            pending.write(record.array(), 0, record.position());
+            if (pending.size() == record.position()) pendingWrites.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 기록이 생기면 창 하나만큼 더 모은 뒤 한꺼번에 쓰고 fsync한다.
+    private void writeLoop() {
+        try {
+            while (true) {
+                ByteArrayOutputStream batch;
+                lock.lock();
+                try {
+                    while (pending.size() == 0 && !closed) pendingWrites.await();
+                    if (pending.size() == 0) return;
+                } finally {
+                    lock.unlock();
+                }
+                if (commitWindowMillis > 0) Thread.sleep(commitWindowMillis);
+
+                lock.lock();
+                try {
+                    batch = pending;
+                    pending = spare;
+                    spare = batch;
+                } finally {
+                    lock.unlock();
+                }
+                write(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // 더 쓸 수 없으면 이후 기록은 버린다. 대국은 기록 없이 계속된다.
+            System.out.println("[Journal] Write failed, journaling stopped: " + e.getMessage());
+            lock.lock();
+            try {
+                closed = true;
+                pending.reset();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // journal 스레드에서만 호출된다. 다 쓴 버퍼는 비워서 다음 교대에 다시 쓴다.
+    private void write(ByteArrayOutputStream batch) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(batch.toByteArray());
+        while (buffer.hasRemaining()) channel.write(buffer);
+        channel.force(false);
+        batch.reset();
+    }
+
+    // 남은 기록을 모두 쓰고 닫는다.
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            pendingWrites.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (writer == null) return;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    // ---- 복구 ----
+
+    private static void recover(Path path, Map<Integer, RoomRecord> rooms) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while (true) {
+                byte[] body;
+                try {
+                    int length = in.readInt();
+                    if (length <= 0 || length > MAX_RECORD) break;
+                    body = new byte[length];
+                    in.readFully(body);
+                } catch (EOFException e) {
+                    break; // 마지막 레코드가 쓰다 만 것이면 거기까지만 믿는다.
+                }
+                apply(ByteBuffer.wrap(body), rooms);
+            }
+        }
+        rooms.values().removeIf(room -> room.finished);
+    }
+
+    private static void apply(ByteBuffer record, Map<Integer, RoomRecord> rooms) {
+        byte type = record.get();
+        int roomId = record.getInt();
+        if (type == START) {
+            long startedAt = record.getLong();
+            RuleSet rules = RuleSet.values()[record.get()];
+            String[] tokens = {readString(record), readString(record)};
+            String[] names = {readString(record), readString(record)};
+            rooms.put(roomId, new RoomRecord(roomId, startedAt, rules, tokens, names));
+            return;
+        }
+
+        RoomRecord room = rooms.get(roomId);
+        if (room == null) return;
+        switch (type) {
+            case MOVE -> room.moves.push(record.get(), record.get(), (char) record.get());
+            case UNDO -> {
+                int depth = record.get() & 0xFF;
+                for (int i = 0; i < depth; i++) room.moves.pop();
+            }
+            case END -> room.finished = true;
+            default -> {
+            }
+        }
+    }
+
+    private static String readString(ByteBuffer record) {
+        byte[] bytes = new byte[record.get() & 0xFF];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // 끝나지 않은 방의 START와 MOVE만 새 파일에 쓰고 원래 파일과 바꾼다.
+    private static void compact(Path path, Map<Integer, RoomRecord> rooms) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        for (RoomRecord room : rooms.values()) {
+            ByteBuffer start = startRecord(room.roomId, room.startedAt, room.rules, room.tokens, room.names);
+            records.write(start.array(), 0, start.position());
+            for (int i = 0; i < room.moves.size(); i++) {
+                int move = room.moves.get(i);
+                ByteBuffer record = moveRecord(room.roomId, MoveStack.rowOf(move), MoveStack.colOf(move),
+                        MoveStack.stoneOf(move));
+                records.write(record.array(), 0, record.position());
+            }
+        }
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(records.toByteArray());
+            while (buffer.hasRemaining()) out.write(buffer);
+            out.force(false);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
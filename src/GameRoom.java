@@ -0,0 +1,739 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+// 한 판의 대국을 담당하는 방. 보드, 턴, 무르기 상태를 방마다 따로 가진다.
+// 각 연결의 읽기 스레드(또는 NIO 이벤트 루프)가 프레임을 넘겨주면 그 자리에서 처리한다.
+// 받아들인 수, 무르기, 결과는 GameJournal에 남기고, 승패가 난 대국은 GameArchive에 보관하고 레이팅에 반영한다. 서버가 다시 뜨면 기록으로 방을 되살리고
+// 두 자리의 토큰으로 플레이어가 다시 들어올 때까지 기다린다.
+// 대국 중에 연결이 끊겨도 방을 닫지 않는다. 그 자리를 비우고 시계를 세운 채 재접속 유예 시간 동안 기다리며,
+// 같은 토큰으로 돌아오면 놓친 변경분(오래 끊겼으면 보드 전체)을 보내고 이어 둔다. 유예 시간이 지나면 기권패다.
+// 관전자는 몇 명이든 받을 수 있고, 보드 변경분과 채팅, 시계는 SpectatorBroadcast가 한 번만 인코딩해 나눠 보낸다.
+// 두 플레이어의 시계도 방이 들고 있다. 만료와 초읽기 알림은 모든 방이 함께 쓰는 TimingWheel에 예약한다.
+public class GameRoom implements FrameListener, MessageHandler {
+    private static final int BOARD_SIZE = 19;
+    private static final int MAX_UNDO_DEPTH = 255; // 바이너리 프레임에 한 바이트로 싣는다
+    private static final long CLOCK_TICK_MS = 1000; // 남은 시간을 알려 주는 간격
+    private static final int RANDOM_PROBES = 16;    // 시간이 다 됐을 때 빈 칸을 찾으려 무작위로 찍어 보는 횟수
+    private static final int RECENT_DELTAS = 64;    // 재접속한 플레이어에게 다시 보내려고 남겨 두는 변경분 수
+
+    private final int roomId;
+    private final RoomManager manager;
+    private final Board board = new BitBoard();
+    private final CandidateSet candidates = new CandidateSet(); // 돌 둘레의 빈 칸. 시간이 다 됐을 때 대신 둘 칸을 여기서 고른다
+    private final RuleSet rules;
+    private final TimeControl timeControl;
+    private final Connection[] players = new Connection[2]; // [흑, 백]. 되살린 방에서는 다시 들어오기 전까지 null
+    private final String[] tokens;      // 자리별 재접속 토큰
+    private final String[] names;       // 자리별 플레이어 이름
+    private final long startedAt;
+    // 두 연결의 프레임이 서로 다른 스레드에서 들어오므로 방 상태는 이 잠금으로 보호한다.
+    private final ReentrantLock lock = new ReentrantLock();
+    private boolean isPlayer1Turn = true;
+    private final MoveStack moves = new MoveStack(); // 둔 수 기록. 무르기는 위에서부터 꺼낸다.
+    private int boardSeq = 0; // 보드가 바뀔 때마다 1씩 증가한다. 빈 보드가 0번이다.
+    private Connection undoRequester = null; // 응답을 기다리는 무르기 요청
+    private int undoDepth = 0;
+    private final long[] remaining = new long[2]; // 자리별 남은 시간 (ms). 시계가 가는 동안 흐른 시간은 아직 빼지 않았다
+    private long turnStartedAt;                   // 시계가 간 시각 (System.nanoTime)
+    private boolean clockRunning = false;
+    private int clockGeneration = 0;              // 시계를 멈추거나 다시 걸 때마다 늘린다. 이미 꺼낸 만료 작업을 걸러낸다
+    private TimingWheel.Timeout clockExpiry;
+    private TimingWheel.Timeout clockTick;
+    private final SpectatorBroadcast spectators;
+    private byte[] snapshotFrame;  // 관전자에게 보낼 보드 전체 프레임. boardSeq가 바뀌면 다시 만든다
+    private int snapshotSeq = -1;
+    private final Message[] recentDeltas = new Message[RECENT_DELTAS]; // 순번 % RECENT_DELTAS 칸에 최근 변경분
+    private final TimingWheel.Timeout[] graceExpiry = new TimingWheel.Timeout[2]; // 끊긴 자리의 유예 시간 만료
+    private final int[] graceGeneration = new int[2]; // 자리가 다시 찰 때마다 늘린다. 이미 꺼낸 만료 작업을 걸러낸다
+    private final List<Connection> failedSends = new ArrayList<>(2); // 이번 처리에서 보내다 실패한 연결. 처리가 끝나면 닫는다
+    private volatile boolean closed = false;
+
+    public GameRoom(int roomId, RoomManager manager, RuleSet rules, String[] tokens, String[] names, long startedAt) {
+        this.roomId = roomId;
+        this.manager = manager;
+        this.rules = rules;
+        this.timeControl = manager.getTimeControl();
+        this.tokens = tokens;
+        this.names = names;
+        this.startedAt = startedAt;
+        remaining[0] = remaining[1] = timeControl.baseMillis;
+        this.spectators = new SpectatorBroadcast(roomId, manager.getStats());
+    }
+
+    public int getRoomId() {
+        return roomId;
+    }
+
+    public RuleSet getRules() {
+        return rules;
+    }
+
+    // seat: 0 = 흑, 1 = 백
+    String getToken(int seat) {
+        return tokens[seat];
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    // 되살린 방이 아직 두 플레이어를 다 기다리고 있는지
+    public boolean isWaitingForPlayers() {
+        lock.lock();
+        try {
+            return !closed && (players[0] == null || players[1] == null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 새 방에 두 플레이어를 앉히고 대국을 시작한다. 연결의 읽기는 부른 쪽이 방이 생기기 전에 받은 프레임을
+    // 다 넘긴 뒤에 startReading(room)으로 시작한다.
+    public void start(Connection player1, Connection player2) {
+        System.out.println("[Room " + roomId + "] Game started (" + rules + "): " + names[0] + " vs " + names[1]);
+        lock.lock();
+        try {
+            players[0] = player1;
+            players[1] = player2;
+            manager.getJournal().start(roomId, startedAt, rules, tokens, names);
+            // 토큰은 바이너리 프로토콜을 협상한 클라이언트에게만 보낸다. 기존 클라이언트는 모르는 메시지다.
+            for (int seat = 0; seat < 2; seat++) {
+                if (players[seat].isBinary()) send(players[seat], Message.session(tokens[seat]));
+            }
+            beginTurn();
+        } catch (IOException e) {
+            System.out.println("[Room " + roomId + "] Error during game: " + e.getMessage());
+            close();
+        } finally {
+            closeFailed();
+            lock.unlock();
+        }
+    }
+
+    // 기록에서 읽은 수를 다시 둔다. 방을 만든 직후, 누가 들어오기 전에만 호출한다.
+    // 시계는 기록하지 않으므로 되살린 방은 두 사람 모두 처음 시간에서 다시 시작한다.
+    public void restore(MoveStack recorded) {
+        lock.lock();
+        try {
+            for (int i = 0; i < recorded.size(); i++) {
+                int move = recorded.get(i);
+                int row = MoveStack.rowOf(move);
+                int col = MoveStack.colOf(move);
+                char stone = MoveStack.stoneOf(move);
+                board.place(row, col, stone);
+                moves.push(row, col, stone);
+                candidates.place(row * BOARD_SIZE + col);
+            }
+            // 흑부터 번갈아 두므로 남은 수의 개수로 차례가 정해진다.
+            isPlayer1Turn = moves.size() % 2 == 0;
+            boardSeq = moves.size();
+        } finally {
+            lock.unlock();
+        }
+        System.out.println("[Room " + roomId + "] Restored with " + moves.size() + " moves (" + rules + ").");
+    }
+
+    // 관전자를 받는다. 바이너리로 협상한 연결만 받으며, 현재 보드를 보낸 뒤부터 변경분을 보낸다.
+    public boolean watch(Connection connection) {
+        lock.lock();
+        try {
+            if (closed) return false;
+            spectators.add(connection, snapshotFrame());
+        } finally {
+            lock.unlock();
+        }
+        System.out.println("[Room " + roomId + "] Spectator joined: " + connection.getRemoteAddress()
+                + " (" + spectators.getWatcherCount() + " watching)");
+        return true;
+    }
+
+    // 토큰이 맞는 자리로 연결을 들여보내고 boardSeq 뒤로 놓친 변경분이나 현재 보드를 보낸다.
+    // 서버가 끊긴 줄 모르는 사이에 다시 접속했으면 예전 연결을 닫고 자리를 넘긴다.
+    // 두 자리가 다 차면 세워 둔 시계를 남은 시간부터 다시 건다.
+    // 따라잡기를 다 보낸 뒤에야 자리와 유예 타이머를 건드리므로, 보내다 실패하면 방은 그대로 남는다.
+    public boolean resume(String token, int boardSeq, Connection connection) throws IOException {
+        lock.lock();
+        try {
+            int seat = token.equals(tokens[0]) ? 0 : token.equals(tokens[1]) ? 1 : -1;
+            if (closed || seat < 0) return false;
+            connection.send(Message.role(seat + 1));
+            connection.send(Message.session(token));
+            sendMissed(connection, boardSeq);
+
+            Connection previous = players[seat];
+            if (previous != null) {
+                vacate(seat);
+                previous.close(); // 이 연결의 onClose는 자리에 없으므로 무시된다
+            }
+            graceGeneration[seat]++;
+            if (graceExpiry[seat] != null) graceExpiry[seat].cancel();
+            graceExpiry[seat] = null;
+            players[seat] = connection;
+            System.out.println("[Room " + roomId + "] Player " + (seat + 1) + " resumed: " + connection.getRemoteAddress());
+
+            // 여기서부터 자리는 새 연결의 것이다. 새 연결에 보내다 실패하면 끊긴 것으로 보고 유예 시간을 다시 건다.
+            // 상대에게 보내다 실패하면 closeFailed()가 상대를 닫아 그 자리도 비워 둔다.
+            Connection other = players[1 - seat];
+            boolean delivered = true;
+            if (other == null) {
+                delivered = trySend(connection, Message.notice("Waiting for opponent to reconnect."));
+            } else {
+                if (previous == null) send(other, Message.notice("Opponent reconnected."));
+                if (currentPlayer() == connection) {
+                    delivered = trySend(connection, Message.of(MessageType.YOUR_TURN));
+                } else {
+                    send(other, Message.of(MessageType.YOUR_TURN));
+                }
+                if (delivered) {
+                    try {
+                        startClock(false);
+                    } catch (IOException e) {
+                        // 시계는 이미 걸렸다. 플레이어에게 못 보낸 것은 closeFailed()가 처리한다.
+                    }
+                }
+            }
+            if (!delivered) {
+                onClose(connection);
+                connection.close();
+            }
+        } finally {
+            closeFailed();
+            lock.unlock();
+        }
+        connection.startReading(this);
+        return true;
+    }
+
+    private static boolean trySend(Connection connection, Message message) {
+        try {
+            connection.send(message);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // 잠금 안에서 호출한다. 플레이어에게 보내다 실패해도 예외를 던지지 않고 그 연결만 기억해 둔다.
+    // 수를 두다 말고 빠져나가면 방 상태가 어긋나므로, 처리를 끝까지 마친 뒤 closeFailed()에서 닫는다.
+    private void send(Connection to, Message message) {
+        if (!trySend(to, message) && !failedSends.contains(to)) failedSends.add(to);
+    }
+
+    // 잠금 안에서, 한 번의 처리가 끝날 때 호출한다. 실패한 연결을 닫으면 onClose가 그 자리만 비우고
+    // 유예 시간을 건다. 방 전체를 닫는 것은 자리와 상관없는 실패뿐이다.
+    private void closeFailed() {
+        while (!failedSends.isEmpty()) failedSends.remove(failedSends.size() - 1).close();
+    }
+
+    // 잠금 안에서 호출한다. 바이너리 연결이고 놓친 변경분이 모두 남아 있으면 그것만, 아니면 보드 전체를 보낸다.
+    private void sendMissed(Connection connection, int lastSeq) throws IOException {
+        boolean replayable = connection.isBinary() && lastSeq >= 0 && lastSeq <= boardSeq
+                && boardSeq - lastSeq <= RECENT_DELTAS;
+        for (int seq = lastSeq + 1; replayable && seq <= boardSeq; seq++) {
+            Message delta = recentDeltas[seq % RECENT_DELTAS];
+            if (delta == null || delta.seq != seq) replayable = false;
+        }
+        if (!replayable) {
+            connection.send(Message.board(board.toCells(), boardSeq));
+            return;
+        }
+        for (int seq = lastSeq + 1; seq <= boardSeq; seq++) connection.send(recentDeltas[seq % RECENT_DELTAS]);
+    }
+
+    @Override
+    public void onFrame(Connection from, Message message) {
+        lock.lock();
+        try {
+            if (closed) return;
+            if (players[0] == null || players[1] == null) {
+                send(from, Message.notice("Waiting for opponent to reconnect."));
+                return;
+            }
+            MessageRouter.route(from, message, this);
+        } catch (IOException e) {
+            // 플레이어에게 보내다 난 실패는 send()가 삼키므로, 여기 오는 것은 자리와 상관없는 실패다.
+            System.out.println("[Room " + roomId + "] Error during game: " + e.getMessage());
+            close();
+        } finally {
+            closeFailed();
+            lock.unlock();
+        }
+    }
+
+    // 플레이어 연결이 끊기면 유예 시간 동안 자리를 비워 둔다. 유예 시간이 0이거나 재접속할 수 없는
+    // 텍스트 클라이언트면 예전처럼 방을 닫는다.
+    @Override
+    public void onClose(Connection from) {
+        lock.lock();
+        try {
+            if (closed) return;
+            int seat = from == players[0] ? 0 : from == players[1] ? 1 : -1;
+            if (seat < 0) return; // 재접속으로 이미 바뀐 연결
+            long grace = manager.getReconnectGraceMillis();
+            System.out.println("[Room " + roomId + "] Player " + (seat + 1) + " disconnected.");
+            if (grace <= 0 || !from.isBinary()) { // 토큰을 받지 못한 텍스트 클라이언트는 돌아올 수 없다
+                close();
+                return;
+            }
+            vacate(seat);
+            int generation = ++graceGeneration[seat];
+            graceExpiry[seat] = manager.getTimingWheel().schedule(grace, () -> onGraceExpired(seat, generation));
+            Message notice = Message.notice("Opponent disconnected. Waiting " + grace / 1000 + "s for them to reconnect.");
+            Connection other = players[1 - seat];
+            try {
+                if (other != null) other.send(notice);
+                spectators.publish(notice, this::snapshotFrame);
+            } catch (IOException e) {
+                // 상대도 끊겼으면 그쪽 onClose가 처리한다.
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 잠금 안에서 호출한다. 자리를 비우고 시계와 답을 기다리던 무르기 요청을 거둔다.
+    private void vacate(int seat) {
+        players[seat] = null;
+        manager.getStats().connectionClosed();
+        stopClock();
+        if (undoRequester == null) return;
+        Connection requester = undoRequester;
+        undoRequester = null;
+        try {
+            if (requester == players[1 - seat]) requester.send(Message.of(MessageType.UNDO_REJECTED));
+        } catch (IOException e) {
+            // 곧 그쪽 onClose가 온다.
+        }
+    }
+
+    // TimingWheel의 작업 스레드에서 호출된다. 유예 시간 안에 돌아오지 않은 플레이어는 기권패다.
+    // 두 사람 모두 돌아오지 않았으면 결과 없이 닫는다.
+    private void onGraceExpired(int seat, int generation) {
+        lock.lock();
+        try {
+            if (closed || players[seat] != null || generation != graceGeneration[seat]) return;
+            System.out.println("[Room " + roomId + "] " + names[seat] + " did not reconnect in time.");
+            Connection other = players[1 - seat];
+            if (other == null) {
+                close();
+                return;
+            }
+            send(other, Message.notice("Opponent did not reconnect."));
+            send(other, Message.of(MessageType.WIN));
+            close(seat == 0 ? GameJournal.RESULT_WHITE_WIN : GameJournal.RESULT_BLACK_WIN);
+        } finally {
+            closeFailed();
+            lock.unlock();
+        }
+    }
+
+    // 채팅은 차례와 상관없이 바로 두 플레이어와 관전자에게 전달한다.
+    @Override
+    public void onChat(Connection from, String text) throws IOException {
+        Message message = Message.chat(text);
+        send(players[0], message);
+        send(players[1], message);
+        spectators.publish(message, this::snapshotFrame);
+    }
+
+    // 자기 차례인 플레이어가 최근 depth수(양쪽 수 모두 셈)를 무르자고 요청한다.
+    @Override
+    public void onUndoRequest(Connection from, int depth) throws IOException {
+        if (from != currentPlayer() || undoRequester != null) {
+            send(from, Message.of(MessageType.UNDO_REJECTED));
+            return;
+        }
+        if (depth > moves.size() || depth > MAX_UNDO_DEPTH) {
+            send(from, Message.notice("No previous state available"));
+            send(from, Message.of(MessageType.UNDO_REJECTED));
+            return;
+        }
+        undoRequester = from;
+        undoDepth = depth;
+        stopClock(); // 상대가 답하는 동안은 시계를 세운다
+        send(otherPlayer(), Message.undo(MessageType.UNDO_RESPONSE_REQUIRED, depth));
+    }
+
+    @Override
+    public void onUndoResponse(Connection from, boolean accepted, int depth) throws IOException {
+        if (undoRequester == null || from == undoRequester) return;
+
+        Connection current = undoRequester;
+        Connection other = from;
+        undoRequester = null;
+
+        // 상대가 수락한 개수가 요청과 다르면 거절로 처리한다.
+        if (!accepted || depth != undoDepth) {
+            send(current, Message.of(MessageType.UNDO_REJECTED));
+            send(current, Message.of(MessageType.YOUR_TURN));
+            startClock(false);
+            return;
+        }
+
+        // 스택에서 depth수를 꺼내 칸을 비우고, 바뀐 칸을 변경분 하나로 묶어 보낸다.
+        byte[] changes = new byte[undoDepth * 3];
+        for (int i = 0; i < undoDepth; i++) {
+            int move = moves.pop();
+            int row = MoveStack.rowOf(move);
+            int col = MoveStack.colOf(move);
+            board.remove(row, col);
+            candidates.remove(row * BOARD_SIZE + col);
+            changes[i * 3] = (byte) row;
+            changes[i * 3 + 1] = (byte) col;
+            changes[i * 3 + 2] = (byte) Board.EMPTY;
+        }
+        manager.getJournal().undo(roomId, undoDepth);
+        send(current, Message.of(MessageType.UNDO_SUCCESSFUL));
+        send(other, Message.of(MessageType.UNDO_SUCCESSFUL));
+        broadcastDelta(Message.delta(++boardSeq, changes));
+
+        // 마지막으로 무른 수를 뒀던 플레이어의 차례가 된다.
+        if (undoDepth % 2 == 1) {
+            isPlayer1Turn = !isPlayer1Turn;
+        }
+        beginTurn();
+    }
+
+    // 클라이언트가 순번 차이를 발견하면 현재 보드 전체를 다시 보낸다.
+    @Override
+    public void onSnapshotRequest(Connection from) throws IOException {
+        send(from, Message.board(board.toCells(), boardSeq));
+    }
+
+    @Override
+    public void onInvalid(Connection from, Message message) throws IOException {
+        send(from, Message.of(MessageType.INVALID_MOVE));
+        if (from == currentPlayer()) send(from, Message.of(MessageType.YOUR_TURN));
+    }
+
+    @Override
+    public void onMove(Connection from, int row, int col) throws IOException {
+        long receivedAt = System.nanoTime();
+        Connection current = currentPlayer();
+        char currentSymbol = isPlayer1Turn ? 'X' : 'O';
+
+        if (from != current) {
+            send(from, Message.notice("Not your turn."));
+            return;
+        }
+        if (undoRequester != null) {
+            send(from, Message.notice("Waiting for undo response."));
+            return;
+        }
+
+        if (row < 0 || row >= BOARD_SIZE || col < 0 || col >= BOARD_SIZE || !board.isEmpty(row, col)) {
+            send(current, Message.of(MessageType.INVALID_MOVE));
+            send(current, Message.of(MessageType.YOUR_TURN));
+            return;
+        }
+
+        board.place(row, col, currentSymbol);
+
+        if (rules.isForbidden(board, row, col, currentSymbol)) {
+            send(current, Message.of(MessageType.FORBIDDEN_MOVE));
+            board.remove(row, col); // 무효화
+            send(current, Message.of(MessageType.YOUR_TURN)); // 현재 플레이어가 다시 수를 둘 수 있도록 처리
+            return;
+        }
+
+        play(row, col);
+        manager.getStats().recordMoveLatency(receivedAt);
+    }
+
+    // 잠금 안에서 호출한다. 현재 차례의 돌이 (row, col)에 이미 놓였고 둘 수 있는 수임을 확인한 뒤다.
+    // 기록하고 알린 다음 승패를 가리거나 차례를 넘긴다.
+    private void play(int row, int col) throws IOException {
+        Connection current = currentPlayer();
+        Connection other = otherPlayer();
+        char currentSymbol = isPlayer1Turn ? 'X' : 'O';
+
+        stopClock();
+        if (timeControl.mode == TimeControl.Mode.FISCHER) remaining[seat()] += timeControl.incrementMillis;
+        if (timeControl.mode == TimeControl.Mode.FIXED) remaining[seat()] = timeControl.baseMillis;
+        moves.push(row, col, currentSymbol);
+        candidates.place(row * BOARD_SIZE + col);
+        manager.getJournal().move(roomId, row, col, currentSymbol);
+        broadcastDelta(Message.delta(++boardSeq, row, col, currentSymbol));
+
+        if (rules.isWin(board, row, col, currentSymbol)) {
+            send(current, Message.of(MessageType.WIN));
+            send(other, Message.of(MessageType.LOSE));
+            close(isPlayer1Turn ? GameJournal.RESULT_BLACK_WIN : GameJournal.RESULT_WHITE_WIN);
+            return;
+        }
+
+        if (board.isFull()) {
+            send(current, Message.of(MessageType.DRAW));
+            send(other, Message.of(MessageType.DRAW));
+            close(GameJournal.RESULT_DRAW);
+            return;
+        }
+
+        isPlayer1Turn = !isPlayer1Turn;
+        beginTurn();
+    }
+
+    // ---- 시계 (모두 잠금 안에서 호출한다) ----
+
+    // 새 차례를 알리고 그 플레이어의 시계를 건다.
+    private void beginTurn() throws IOException {
+        send(currentPlayer(), Message.of(MessageType.YOUR_TURN));
+        startClock(true);
+    }
+
+    // freshTurn이면 한 수 제한 시간을 처음부터 다시 준다. 무르기 거절처럼 같은 차례가 이어지면 남은 시간부터 간다.
+    private void startClock(boolean freshTurn) throws IOException {
+        if (!timeControl.isEnabled() || closed) return;
+        cancelClockTimers();
+        int seat = seat();
+        if (freshTurn && timeControl.mode == TimeControl.Mode.FIXED) remaining[seat] = timeControl.baseMillis;
+        turnStartedAt = System.nanoTime();
+        clockRunning = true;
+        int generation = ++clockGeneration;
+        TimingWheel wheel = manager.getTimingWheel();
+        clockExpiry = wheel.schedule(remaining[seat], () -> onClockExpired(generation));
+        scheduleTick(generation);
+        broadcastClock();
+    }
+
+    // 흐른 시간을 차례인 플레이어에게서 빼고 시계를 멈춘다.
+    private void stopClock() {
+        if (!clockRunning) return;
+        remaining[seat()] = elapsedRemaining();
+        clockRunning = false;
+        clockGeneration++;
+        cancelClockTimers();
+    }
+
+    private void cancelClockTimers() {
+        if (clockExpiry != null) clockExpiry.cancel();
+        if (clockTick != null) clockTick.cancel();
+        clockExpiry = null;
+        clockTick = null;
+    }
+
+    private long elapsedRemaining() {
+        long elapsed = (System.nanoTime() - turnStartedAt) / 1_000_000;
+        return Math.max(0, remaining[seat()] - elapsed);
+    }
+
+    private void scheduleTick(int generation) {
+        clockTick = manager.getTimingWheel().schedule(CLOCK_TICK_MS, () -> onClockTick(generation));
+    }
+
+    private void onClockTick(int generation) {
+        lock.lock();
+        try {
+            if (closed || generation != clockGeneration) return;
+            scheduleTick(generation);
+            broadcastClock();
+        } catch (IOException e) {
+            System.out.println("[Room " + roomId + "] Error during game: " + e.getMessage());
+            close();
+        } finally {
+            closeFailed();
+            lock.unlock();
+        }
+    }
+
+    // 시계를 아는 바이너리 연결에만 보낸다. 기존 텍스트 클라이언트는 자기 타이머를 쓴다.
+    private void broadcastClock() throws IOException {
+        int seat = seat();
+        long[] shown = remaining.clone();
+        if (clockRunning) shown[seat] = elapsedRemaining();
+        Message clock = Message.clock((int) shown[0], (int) shown[1], clockRunning ? seat : -1);
+        for (Connection player : players) {
+            if (player != null && player.isBinary()) send(player, clock);
+        }
+        spectators.publish(clock, this::snapshotFrame);
+    }
+
+    // TimingWheel의 작업 스레드에서 호출된다. 그 사이에 수를 뒀거나 시계가 다시 걸렸으면 무시한다.
+    private void onClockExpired(int generation) {
+        lock.lock();
+        try {
+            if (closed || generation != clockGeneration) return;
+            stopClock();
+            remaining[seat()] = 0;
+            Connection current = currentPlayer();
+            int cell = timeControl.losesOnTime() ? -1 : placeRandomMove();
+            if (cell >= 0) {
+                send(current, Message.notice("Time is up. A move was played for you."));
+                play(cell / BOARD_SIZE, cell % BOARD_SIZE);
+                return;
+            }
+            System.out.println("[Room " + roomId + "] " + names[seat()] + " lost on time.");
+            send(current, Message.notice("Time is up."));
+            send(current, Message.of(MessageType.LOSE));
+            send(otherPlayer(), Message.of(MessageType.WIN));
+            close(isPlayer1Turn ? GameJournal.RESULT_WHITE_WIN : GameJournal.RESULT_BLACK_WIN);
+        } catch (IOException e) {
+            System.out.println("[Room " + roomId + "] Error during game: " + e.getMessage());
+            close();
+        } finally {
+            closeFailed();
+            lock.unlock();
+        }
+    }
+
+    // 시간이 다 된 플레이어 대신 둘 칸을 골라 돌을 놓는다. 판 아무 데나 두지 않도록 돌 둘레의 후보 중에서
+    // 무작위로 하나 고르고, 금수면 그 다음 후보로 넘어간다. 후보가 없거나(빈 판) 모두 금수면 판 전체에서
+    // 무작위로 몇 칸 찍어 보고, 그래도 막혔으면 무작위 위치부터 한 바퀴 훑는다.
+    // 놓은 칸 번호를, 둘 곳이 없으면 -1을 돌려준다.
+    private int placeRandomMove() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int count = candidates.size();
+        if (count > 0) {
+            int start = candidates.get(random.nextInt(count));
+            for (int cell = start; cell >= 0; cell = candidates.next(cell + 1)) {
+                if (tryPlace(cell)) return cell;
+            }
+            for (int cell = candidates.next(0); cell >= 0 && cell < start; cell = candidates.next(cell + 1)) {
+                if (tryPlace(cell)) return cell;
+            }
+        }
+        int cells = BOARD_SIZE * BOARD_SIZE;
+        for (int i = 0; i < RANDOM_PROBES; i++) {
+            int cell = random.nextInt(cells);
+            if (tryPlace(cell)) return cell;
+        }
+        int start = random.nextInt(cells);
+        for (int i = 0; i < cells; i++) {
+            int cell = (start + i) % cells;
+            if (tryPlace(cell)) return cell;
+        }
+        return -1;
+    }
+
+    private boolean tryPlace(int cell) {
+        int row = cell / BOARD_SIZE;
+        int col = cell % BOARD_SIZE;
+        if (!board.isEmpty(row, col)) return false;
+        char stone = isPlayer1Turn ? 'X' : 'O';
+        board.place(row, col, stone);
+        if (rules.isForbidden(board, row, col, stone)) {
+            board.remove(row, col);
+            return false;
+        }
+        return true;
+    }
+
+    private int seat() {
+        return isPlayer1Turn ? 0 : 1;
+    }
+
+    private Connection currentPlayer() {
+        return isPlayer1Turn ? players[0] : players[1];
+    }
+
+    private Connection otherPlayer() {
+        return isPlayer1Turn ? players[1] : players[0];
+    }
+
+    // 바이너리 연결에는 바뀐 칸만, 기존 텍스트 클라이언트에는 보드 전체를 보낸다.
+    private void broadcastDelta(Message delta) throws IOException {
+        recentDeltas[delta.seq % RECENT_DELTAS] = delta;
+        Message snapshot = null;
+        for (Connection player : players) {
+            if (player.isBinary()) {
+                send(player, delta);
+            } else {
+                if (snapshot == null) snapshot = Message.board(board.toCells(), boardSeq);
+                send(player, snapshot);
+            }
+        }
+        spectators.publish(delta, this::snapshotFrame);
+    }
+
+    // 잠금 안에서 호출한다. 보드가 바뀐 뒤 처음 필요할 때 한 번만 인코딩한다.
+    private byte[] snapshotFrame() {
+        if (snapshotSeq != boardSeq || snapshotFrame == null) {
+            try {
+                snapshotFrame = FrameCodec.binaryFrame(Message.board(board.toCells(), boardSeq));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // 보드 프레임은 크기가 정해져 있어 일어나지 않는다
+            }
+            snapshotSeq = boardSeq;
+        }
+        return snapshotFrame;
+    }
+
+    // 잠금 안에서 호출한다. 보관에 실패해도 방은 그대로 닫는다.
+    private void archive(byte result) {
+        try {
+            int gameId = manager.getArchive().append(startedAt, System.currentTimeMillis(), rules, result,
+                    names[0], names[1], moves);
+            if (gameId == 0) return;
+            System.out.println("[Room " + roomId + "] Archived as game #" + gameId + ".");
+            announceArchived(gameId);
+        } catch (IOException e) {
+            System.out.println("[Room " + roomId + "] Archive failed: " + e.getMessage());
+        }
+    }
+
+    // 다시 보기에 쓸 대국 번호를 알려 준다. 기존 텍스트 클라이언트는 모르는 메시지라 보내지 않는다.
+    private void announceArchived(int gameId) {
+        Message archived = Message.archived(gameId);
+        for (Connection player : players) {
+            if (player == null || !player.isBinary()) continue;
+            try {
+                player.send(archived);
+            } catch (IOException e) {
+                // 곧 닫을 연결이다.
+            }
+        }
+        try {
+            spectators.publish(archived, this::snapshotFrame);
+        } catch (IOException e) {
+            // 작은 고정 크기 프레임이라 일어나지 않는다.
+        }
+    }
+
+    private static String resultText(byte result) {
+        return switch (result) {
+            case GameJournal.RESULT_BLACK_WIN -> "Black wins!";
+            case GameJournal.RESULT_WHITE_WIN -> "White wins!";
+            case GameJournal.RESULT_DRAW -> "Draw!";
+            default -> "Game ended.";
+        };
+    }
+
+    // 연결을 닫고 방을 정리한다. 여러 번 호출해도 한 번만 처리된다.
+    // 결과 없이 닫힌 방(연결 끊김, 관리자 종료)은 기권 처리로 기록해 다시 되살리지 않는다.
+    public void close() {
+        close(GameJournal.RESULT_ABANDONED);
+    }
+
+    private void close(byte result) {
+        Connection[] connected;
+        lock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+            cancelClockTimers();
+            for (TimingWheel.Timeout expiry : graceExpiry) {
+                if (expiry != null) expiry.cancel();
+            }
+            if (result != GameJournal.RESULT_ABANDONED) {
+                archive(result);
+                manager.getRatings().recordResult(names[0], names[1], result);
+            }
+            manager.getJournal().end(roomId, result);
+            spectators.finish(snapshotFrame(), Message.notice(resultText(result)));
+            connected = players.clone();
+        } finally {
+            lock.unlock();
+        }
+        for (Connection player : connected) {
+            if (player == null) continue;
+            player.close();
+            manager.getStats().connectionClosed();
+        }
+        manager.removeRoom(roomId);
+        System.out.println("[Room " + roomId + "] Room closed.");
+    }
+}
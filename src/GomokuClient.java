@@ -3,19 +3,23 @@ import javax.swing.plaf.basic.BasicScrollBarUI;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
 import java.io.*;
-import java.net.Socket;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 
 public class GomokuClient {
     private static final int BOARD_SIZE = 19;
     private static final int CELL_SIZE = 30;
+    private static final int REPLAY_FETCH = 32; // 다시 보기에서 서버에 한 번에 요청하는 수 개수
     private char[][] board = new char[BOARD_SIZE][BOARD_SIZE];
     private String playerRole = "";
-    private DataInputStream input;
-    private DataOutputStream output;
+    private final String serverAddress;
+    private final int port;
+    private final ClientConnection connection; // 소켓 읽기/쓰기는 이 연결의 스레드가 맡는다
+    private int boardSeq = 0; // 마지막으로 반영한 보드 순번. 빈 보드가 0번, -1이면 알 수 없음
+    private boolean snapshotRequested = false;
     private GamePanel gamePanel;
     private JFrame frame;
     private boolean isPlayerTurn = false;
@@ -25,87 +29,109 @@ public class GomokuClient {
     private JLabel timerLabel1;
     private GamePanel.RoundedButton leftArrow ;
     private GamePanel.RoundedButton rightArrow;
-    private Timer timer;
-    private int timeLeft = 20;
     private boolean undoRequested = false;
-    private final List<TurnRecord> gameHistory = new ArrayList<>();
+    private final List<TurnRecord> gameHistory = new ArrayList<>(); // 서버가 확인한 수를 둔 순서대로
+    private final int[][] historyIndex = new int[BOARD_SIZE][BOARD_SIZE]; // 칸마다 gameHistory 안의 위치. 없으면 -1
     private int currentReplayStep = -1; // 현재 재생 중인 단계
     private boolean isGameEnded = false;
+    private int archivedGameId = 0; // 서버가 보관한 이 대국의 번호. 0이면 보관되지 않음
+    private ReplayStream replayStream;
+    private TurnRecord[] archivedMoves; // 서버에서 받아 온 수. 아직 받지 않은 칸은 null
+    private boolean replayLoading = false;
 
     public GomokuClient(String serverAddress, int port) {
-        try {
-            Socket socket = new Socket(serverAddress, port);
-            input = new DataInputStream(socket.getInputStream());
-            output = new DataOutputStream(socket.getOutputStream());
-
-            playerRole = input.readUTF();
+        this(serverAddress, port, "");
+    }
 
-            frame = new JFrame("Gomoku Client - " + playerRole);
-//            frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-            frame.setSize(1000, 700);
-            frame.setLocationRelativeTo(null);
+    // playerName이 비어 있으면 LOGIN을 보내지 않고 guest로 들어간다.
+    // 창은 서버가 자리(ROLE)를 알려 준 뒤에 EDT에서 만든다. 여기서는 접속을 시작만 하고 바로 돌아온다.
+    public GomokuClient(String serverAddress, int port, String playerName) {
+        this.serverAddress = serverAddress;
+        this.port = port;
+        for (int i = 0; i < BOARD_SIZE; i++) {
+            for (int j = 0; j < BOARD_SIZE; j++) {
+                board[i][j] = '.';
+                historyIndex[i][j] = -1;
+            }
+        }
 
-            for (int i = 0; i < BOARD_SIZE; i++) {
-                for (int j = 0; j < BOARD_SIZE; j++) {
-                    board[i][j] = '.';
-                }
+        connection = new ClientConnection(serverAddress, port, new ClientConnection.Listener() {
+            @Override
+            public void onMessage(Message message) {
+                handleServerMessage(message);
             }
 
-            gamePanel = new GamePanel();
+            @Override
+            public void onReconnecting() {
+                isPlayerTurn = false;
+            }
 
-            JPanel mainPanel = new JPanel(null);
-            JLabel background = new JLabel();
-            try {
-                ImageIcon bgIcon = new ImageIcon(getClass().getResource("/images/background.jpg"));
-                Image scaledImage = bgIcon.getImage().getScaledInstance(1000, 700, Image.SCALE_SMOOTH);
-                background.setIcon(new ImageIcon(scaledImage));
-            } catch (Exception e) {
-                System.err.println("배경 이미지를 로드할 수 없습니다: " + e.getMessage());
+            @Override
+            public void onDisconnected(IOException cause) {
+                handleDisconnect(cause);
             }
-            background.setBounds(0, 0, 1000, 700);
-            mainPanel.add(background);
+        });
+        // 바이너리 프로토콜을 요청하고 이름을 보낸다. 서버는 LOGIN을 보고 새 플레이어로 받는다.
+        if (playerName.isEmpty()) {
+            connection.start(Message.hello(FrameCodec.BINARY_VERSION));
+        } else {
+            connection.start(Message.hello(FrameCodec.BINARY_VERSION), Message.login(playerName));
+        }
+    }
 
-            gamePanel.setBounds(50, 50, 580, 580);
-            background.add(gamePanel);
+    private void createWindow() {
+        frame = new JFrame("Gomoku Client - " + playerRole);
+//        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.setSize(1000, 700);
+        frame.setLocationRelativeTo(null);
 
-            JPanel infoPanel = createInfoPanel();
-            infoPanel.setBounds(620, 50, 310, 300);
-            background.add(infoPanel);
+        gamePanel = new GamePanel();
 
-            JPanel chatPanel = createChatPanel();
-            chatPanel.setBounds(650, 290, 300, 340);
-            background.add(chatPanel);
+        JPanel mainPanel = new JPanel(null);
+        JLabel background = new JLabel();
+        try {
+            background.setIcon(Resources.icon("/images/background.jpg", 1000, 700));
+        } catch (Exception e) {
+            System.err.println("배경 이미지를 로드할 수 없습니다: " + e.getMessage());
+        }
+        background.setBounds(0, 0, 1000, 700);
+        mainPanel.add(background);
 
-            leftArrow = new GamePanel.RoundedButton("<",15);
-            rightArrow = new GamePanel.RoundedButton(">",15);
+        gamePanel.setBounds(50, 50, 580, 580);
+        background.add(gamePanel);
 
-            leftArrow.setBounds(645, 75, 50, 50);
-            rightArrow.setBounds(920, 75, 50, 50);
+        JPanel infoPanel = createInfoPanel();
+        infoPanel.setBounds(620, 50, 310, 300);
+        background.add(infoPanel);
 
-            // 버튼 클릭 시 이전/다음 단계로 이동
-            leftArrow.addActionListener(e -> showPreviousStep());
-            rightArrow.addActionListener(e -> showNextStep());
+        JPanel chatPanel = createChatPanel();
+        chatPanel.setBounds(650, 290, 300, 340);
+        background.add(chatPanel);
 
-            leftArrow.setBackground(new Color(255, 182, 193)); // 밝은 회색 배경
-            leftArrow.setForeground(Color.BLACK); // 검은 글자
-            rightArrow.setBackground(new Color(255, 182, 193)); // 밝은 회색 배경
-            rightArrow.setForeground(Color.BLACK); // 검은 글자
+        leftArrow = new GamePanel.RoundedButton("<",15);
+        rightArrow = new GamePanel.RoundedButton(">",15);
 
-            leftArrow.setVisible(false);
-            rightArrow.setVisible(false);
+        leftArrow.setBounds(645, 75, 50, 50);
+        rightArrow.setBounds(920, 75, 50, 50);
 
-            background.add(leftArrow);
-            background.add(rightArrow);
+        // 버튼 클릭 시 이전/다음 단계로 이동
+        leftArrow.addActionListener(e -> showPreviousStep());
+        rightArrow.addActionListener(e -> showNextStep());
 
-            frame.add(mainPanel);
-            frame.setVisible(true);
-            frame.setResizable(false);
+        leftArrow.setBackground(new Color(255, 182, 193)); // 밝은 회색 배경
+        leftArrow.setForeground(Color.BLACK); // 검은 글자
+        rightArrow.setBackground(new Color(255, 182, 193)); // 밝은 회색 배경
+        rightArrow.setForeground(Color.BLACK); // 검은 글자
 
-            new Thread(this::listenToServer).start();
+        leftArrow.setVisible(false);
+        rightArrow.setVisible(false);
 
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        background.add(leftArrow);
+        background.add(rightArrow);
+
+        frame.add(mainPanel);
+        frame.setVisible(true);
+        frame.setResizable(false);
     }
 
     private static class TurnRecord {
@@ -132,195 +158,199 @@ public class GomokuClient {
             return;
         }
 
-        try {
-            char currentSymbol = playerRole.equals("Player 1 (X).") ? 'X' : 'O';
-            board[row][col] = currentSymbol;
-
-            // 현재 수를 기록에 추가 (플레이어 구분 정보도 포함)
-            gameHistory.add(new TurnRecord(row, col, currentSymbol, playerRole));
-
-            output.writeUTF(row + "," + col);
-            resetTimer();
-            isPlayerTurn = false;
-            gamePanel.repaint();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        // 돌은 서버가 받아들인 뒤 오는 변경분(또는 보드)으로 그린다. 금수나 잘못된 수면 아무것도 오지 않으므로
+        // 여기서 먼저 그리면 서버에 없는 돌이 남는다.
+        sendToServer(Message.move(row, col));
+        isPlayerTurn = false;
     }
 
-    private void startTimer() {
-        timeLeft = 20;
-        timerLabel.setText(String.valueOf(timeLeft));
-        if (timer != null) {
-            timer.stop();
-        }
-        timer = new Timer(1000, e -> {
-            timeLeft--;
-            timerLabel.setText(String.valueOf(timeLeft));
-            if (timeLeft == 0) {
-                if (isPlayerTurn) { // 자신의 턴일 때만 랜덤 수 두기
-                    makeRandomMove();
-                }
-            }
-        });
-        timer.start();
+    // 서버가 보낸 남은 시간을 보여 준다. 시계가 가는 쪽의 시간을, 멈춰 있으면 내 시간을 초 단위로 올려서 표시한다.
+    private void showClock(Message clock) {
+        int mySeat = playerRole.startsWith("Player 1") ? 0 : 1;
+        int seat = clock.seq >= 0 ? clock.seq : mySeat;
+        int millis = seat == 0 ? clock.row : clock.col;
+        timerLabel.setText(String.valueOf((millis + 999) / 1000));
     }
 
-    private void resetTimer() {
-        if (timer != null) {
-            timer.stop();
-        }
-        timeLeft = 20;
-        timerLabel.setText(String.valueOf(timeLeft));
+    // 보낼 메시지를 연결의 큐에 넣는다. 실제로 쓰는 것은 연결의 쓰기 스레드다.
+    private void sendToServer(Message message) {
+        connection.send(message);
     }
 
+    // 연결이 완전히 끊겼을 때 (EDT). 대국이 끝나 서버가 닫은 것이면 알릴 필요가 없다.
+    private void handleDisconnect(IOException cause) {
+        if (isGameEnded) return;
+        isPlayerTurn = false;
+        System.out.println("Disconnected: " + cause.getMessage());
+        JOptionPane.showMessageDialog(frame,
+                frame == null ? "서버에 연결할 수 없습니다." : "서버에 다시 연결할 수 없습니다.",
+                "연결 끊김", JOptionPane.WARNING_MESSAGE);
+    }
 
-    private void makeRandomMove() {
-        // 빈 칸의 좌표를 수집
-        List<int[]> emptyCells = new ArrayList<>();
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                if (board[i][j] == '.') { // 빈 칸이면 좌표를 저장
-                    emptyCells.add(new int[]{i, j});
+    // 서버 메시지를 처리한다 (EDT). 같은 묶음의 다음 메시지가 밀리지 않도록 대화상자는 invokeLater로 띄운다.
+    private void handleServerMessage(Message message) {
+        switch (message.type) {
+            case CHAT -> {
+                // 채팅 메시지는 항상 즉시 표시 ("Player: Message")
+                String[] parts = message.text.split(":", 2);
+                if (parts.length == 2) {
+                    String sender = parts[0].trim();
+                    String content = parts[1].trim();
+                    addMessage(messageArea, sender + ": " + content, sender.equals(playerRole));
                 }
             }
-        }
-
-        // 빈 칸이 없으면 종료
-        if (emptyCells.isEmpty()) {
-            JOptionPane.showMessageDialog(frame, "더 이상 놓을 수 있는 위치가 없습니다!");
-            return;
-        }
-
-        // 랜덤하게 빈 칸 중 하나 선택
-        Random random = new Random();
-        int[] randomCell = emptyCells.get(random.nextInt(emptyCells.size()));
-
-        // 선택한 좌표에 돌을 둠
-        int row = randomCell[0];
-        int col = randomCell[1];
-        board[row][col] = (playerRole.equals("Player 1") ? 'X' : 'O'); // 자신의 돌 놓기
-        gamePanel.repaint(); // 화면 갱신
-
-        try {
-            output.writeUTF(row + "," + col); // 서버에 위치 전송
-            isPlayerTurn = false; // 차례 넘기기
-        } catch (IOException ex) {
-            ex.printStackTrace();
-        }
-
-        resetTimer(); // 타이머 초기화
-    }
-
-    private void listenToServer() {
-        try {
-            while (true) {
-                String message = input.readUTF();
-
-                // 채팅 메시지는 항상 즉시 표시
-                if (message.startsWith("CHAT:")) {
-                    String[] parts = message.split(":", 3); // "CHAT:", "Player", "Message"
-                    if (parts.length == 3) {
-                        String sender = parts[1].trim();
-                        String content = parts[2].trim();
-
-                        SwingUtilities.invokeLater(() -> {
-                            boolean isOwnMessage = sender.equals(playerRole);
-                            addMessage(messageArea, sender + ": " + content, isOwnMessage);
-                        });
+            case ROLE -> {
+                // 재접속하면 자리 번호가 다시 오지만 이미 알고 있다.
+                if (frame == null) {
+                    playerRole = message.text;
+                    createWindow();
+                }
+            }
+            case HELLO_ACK, SESSION -> {
+                // 형식 전환과 재접속 토큰은 ClientConnection이 처리한다.
+            }
+            case ARCHIVED -> archivedGameId = message.seq;
+            case CLOCK -> showClock(message);
+            case BOARD -> {
+                updateBoard(message);
+                boardSeq = message.seq;
+                snapshotRequested = false;
+                gamePanel.repaint();
+            }
+            case BOARD_DELTA -> {
+                if (boardSeq < 0 || message.seq != boardSeq + 1) {
+                    // 중간 변경분을 놓쳤으면 전체 보드를 다시 받는다.
+                    if (!snapshotRequested) {
+                        snapshotRequested = true;
+                        sendToServer(Message.of(MessageType.SNAPSHOT_REQUEST));
                     }
-                    continue;
+                    return;
                 }
-
-                if (message.startsWith("Current board:")) {
-                    updateBoard(message);
-                    gamePanel.repaint();
-                } else if (message.equals("Forbidden move! Try again.")) {
-                    SwingUtilities.invokeLater(() -> {
-                        JOptionPane.showMessageDialog(frame, "금지된 수입니다! 다시 시도하세요.", "경고", JOptionPane.WARNING_MESSAGE);
-                    });
-                    isPlayerTurn = true;
-                } else if (message.equals("UNDO_RESPONSE_REQUIRED")) {
+                applyDelta(message);
+                boardSeq = message.seq;
+            }
+            case FORBIDDEN_MOVE -> {
+                SwingUtilities.invokeLater(() -> {
+                    JOptionPane.showMessageDialog(frame, "금지된 수입니다! 다시 시도하세요.", "경고", JOptionPane.WARNING_MESSAGE);
+                });
+                isPlayerTurn = true;
+            }
+            case UNDO_RESPONSE_REQUIRED -> {
+                int depth = message.undoDepth();
+                SwingUtilities.invokeLater(() -> {
                     int response = JOptionPane.showConfirmDialog(
                             frame,
-                            "상대방이 무르기를 요청했습니다. 허락하시겠습니까?",
+                            "상대방이 " + depth + "수 무르기를 요청했습니다. 허락하시겠습니까?",
                             "무르기 요청",
                             JOptionPane.YES_NO_OPTION
                     );
-                    try {
-                        if (response == JOptionPane.YES_OPTION) {
-                            output.writeUTF("UNDO_ACCEPTED");
-                            resetTimer();
-                        } else {
-                            output.writeUTF("UNDO_REJECTED");
-                        }
-                    } catch (IOException ex) {
-                        ex.printStackTrace();
-                    }
-                } else if (message.equals("UNDO_SUCCESSFUL")) {
-                    SwingUtilities.invokeLater(() -> {
-                        JOptionPane.showMessageDialog(frame, "무르기가 수락되었습니다.");
-                        undoRequested = false;
-                        isPlayerTurn = true;
-                        resetTimer();
-                        startTimer();
-                    });
-                } else if (message.equals("UNDO_REJECTED")) {
-                    SwingUtilities.invokeLater(() -> {
-                        JOptionPane.showMessageDialog(frame, "상대방이 무르기를 거절했습니다.");
-                        undoRequested = false;
-                    });
-                } else if (message.equals("Your turn.")) {
-                    boolean previousTurn = isPlayerTurn;
-                    isPlayerTurn = true;
-                    resetTimer();
-                    startTimer();
-
-                    if (!previousTurn) {
-                        SwingUtilities.invokeLater(() ->
-                                JOptionPane.showMessageDialog(frame, "[" + playerRole + "] Your turn!", "Game Alert", JOptionPane.INFORMATION_MESSAGE));
-                    }
-                } else if (message.equals("Opponent turn.")) {
-                    isPlayerTurn = false;
-                    resetTimer();
-                } else if (message.equals("You win!") || message.equals("You lose!") || message.equals("Draw!")) {
-                    isGameEnded = true;
-                    String finalMessage = message;
-
-                    // 게임 기록 디버깅 출력
-                    System.out.println("=== 게임 기록 출력 ===");
-                    for (TurnRecord record : gameHistory) {
-                        System.out.println("Row = " + record.row + ", Col = " + record.col +
-                                ", Symbol = " + record.playerSymbol + ", Role = " + record.playerRole);
+                    if (response == JOptionPane.YES_OPTION) {
+                        sendToServer(Message.undo(MessageType.UNDO_ACCEPTED, depth));
+                    } else {
+                        sendToServer(Message.of(MessageType.UNDO_REJECTED));
                     }
-                    System.out.println("===================");
+                });
+            }
+            case UNDO_SUCCESSFUL -> {
+                // 누구 차례인지는 뒤따르는 YOUR_TURN으로 정해진다.
+                isPlayerTurn = false;
+                undoRequested = false;
+                SwingUtilities.invokeLater(() -> {
+                    JOptionPane.showMessageDialog(frame, "무르기가 수락되었습니다.");
+                });
+            }
+            case UNDO_REJECTED -> {
+                undoRequested = false;
+                SwingUtilities.invokeLater(() -> {
+                    JOptionPane.showMessageDialog(frame, "상대방이 무르기를 거절했습니다.");
+                });
+            }
+            case YOUR_TURN -> {
+                boolean previousTurn = isPlayerTurn;
+                isPlayerTurn = true;
 
-                    SwingUtilities.invokeLater(() -> {
-                        JOptionPane.showMessageDialog(frame, finalMessage, "Game Status", JOptionPane.INFORMATION_MESSAGE);
-                        enableReplayMode();
-                    });
-                }
-                else {
+                if (!previousTurn) {
                     SwingUtilities.invokeLater(() ->
-                            JOptionPane.showMessageDialog(frame, message, "Game Status", JOptionPane.INFORMATION_MESSAGE));
+                            JOptionPane.showMessageDialog(frame, "[" + playerRole + "] Your turn!", "Game Alert", JOptionPane.INFORMATION_MESSAGE));
                 }
             }
-        } catch (IOException e) {
-            e.printStackTrace();
+            case WIN, LOSE, DRAW -> {
+                isGameEnded = true;
+                String finalMessage = message.toString();
+
+                // 게임 기록 디버깅 출력
+                System.out.println("=== 게임 기록 출력 ===");
+                for (TurnRecord record : gameHistory) {
+                    System.out.println("Row = " + record.row + ", Col = " + record.col +
+                            ", Symbol = " + record.playerSymbol + ", Role = " + record.playerRole);
+                }
+                System.out.println("===================");
+
+                SwingUtilities.invokeLater(() -> {
+                    JOptionPane.showMessageDialog(frame, finalMessage, "Game Status", JOptionPane.INFORMATION_MESSAGE);
+                    enableReplayMode();
+                });
+            }
+            default -> {
+                String text = message.toString();
+                SwingUtilities.invokeLater(() ->
+                        JOptionPane.showMessageDialog(frame, text, "Game Status", JOptionPane.INFORMATION_MESSAGE));
+            }
         }
     }
 
 
-    private void updateBoard(String boardState) {
-        String[] rows = boardState.split("\n");
+    // 스냅샷에는 수 순서가 없으므로 새로 생긴 돌은 칸 순서대로, 사라진 돌은 기록에서 뺀다.
+    // 보통은 변경분으로 받고 스냅샷은 재접속하거나 순번이 어긋났을 때만 온다.
+    private void updateBoard(Message boardState) {
         for (int i = 0; i < BOARD_SIZE; i++) {
-            char[] cells = rows[i + 1].toCharArray(); // 보드 상태 파싱
             for (int j = 0; j < BOARD_SIZE; j++) {
-                board[i][j] = cells[j]; // 상태 반영
+                char cell = boardState.cellAt(i, j);
+                if (cell == '.') {
+                    forgetMove(i, j);
+                } else {
+                    recordMove(i, j, cell);
+                }
+                board[i][j] = cell; // 상태 반영
             }
         }
     }
 
+    // 변경분의 칸 순서가 서버에서 둔 순서다. 빈 칸으로 바뀐 것은 무르기로 사라진 수다.
+    private void applyDelta(Message delta) {
+        for (int i = 0; i < delta.changes.length; i += 3) {
+            int row = delta.changes[i];
+            int col = delta.changes[i + 1];
+            char cell = (char) delta.changes[i + 2];
+            if (cell == '.') {
+                forgetMove(row, col);
+            } else {
+                recordMove(row, col, cell);
+            }
+            board[row][col] = cell;
+            gamePanel.repaintCell(row, col);
+        }
+    }
+
+    // 서버가 확인한 수를 기록한다. 이미 기록된 칸이면 무시한다.
+    private void recordMove(int row, int col, char symbol) {
+        if (historyIndex[row][col] >= 0) return;
+        historyIndex[row][col] = gameHistory.size();
+        gameHistory.add(new TurnRecord(row, col, symbol, symbol == 'X' ? "Player 1 (X)." : "Player 2 (O)."));
+    }
+
+    // 사라진 수를 기록에서 뺀다. 무르기는 마지막 수부터 빼므로 뒤를 다시 번호 매길 일이 거의 없다.
+    private void forgetMove(int row, int col) {
+        int index = historyIndex[row][col];
+        if (index < 0) return;
+        historyIndex[row][col] = -1;
+        gameHistory.remove(index);
+        for (int i = index; i < gameHistory.size(); i++) {
+            TurnRecord record = gameHistory.get(i);
+            historyIndex[record.row][record.col] = i;
+        }
+    }
+
     private JPanel createInfoPanel() {
         JPanel infoPanel = new JPanel(null);
         infoPanel.setOpaque(false);
@@ -331,7 +361,7 @@ public class GomokuClient {
         timerPanel.setBackground(new Color(255, 248, 220));
         timerPanel.setBorder(BorderFactory.createLineBorder(new Color(255, 182, 193), 3));
 
-        timerLabel = new JLabel("20", SwingConstants.CENTER);
+        timerLabel = new JLabel("--", SwingConstants.CENTER); // 서버가 CLOCK을 보내면 채운다
         timerLabel.setFont(new Font("맑은 고딕", Font.BOLD, 30));
         timerLabel.setForeground(new Color(255, 105, 180));
         timerLabel.setBounds(-10, 10, 180, 40);
@@ -353,25 +383,21 @@ public class GomokuClient {
 
         // playerRole에 따라 적절한 GIF를 추가
         if (playerRole.equals("Player 1 (X).")) {
-            JLabel leftGif = new JLabel(new ImageIcon(getClass().getResource("/images/bunny.gif")));
+            JLabel leftGif = new JLabel(Resources.animation("/images/bunny.gif"));
             leftGif.setBounds(-10, 70, 200, 200); // GIF의 위치와 크기 설정
             infoPanel.add(leftGif);
 
             // black.png를 리사이즈하여 추가
-            ImageIcon blackIcon = new ImageIcon(getClass().getResource("/images/black.png"));
-            Image resizedBlack = blackIcon.getImage().getScaledInstance(50, 50, Image.SCALE_SMOOTH);
-            JLabel imageLabel = new JLabel(new ImageIcon(resizedBlack));
+            JLabel imageLabel = new JLabel(Resources.icon("/images/black.png", 50, 50));
             imageLabel.setBounds(200, 140, 50, 50); // 이미지의 위치와 크기 설정
             infoPanel.add(imageLabel);
         } else if (playerRole.equals("Player 2 (O).")) {
-            JLabel rightGif = new JLabel(new ImageIcon(getClass().getResource("/images/bear.gif")));
+            JLabel rightGif = new JLabel(Resources.animation("/images/bear.gif"));
             rightGif.setBounds(-10, 70, 200, 200); // GIF의 위치와 크기 설정
             infoPanel.add(rightGif);
 
             // white.png를 리사이즈하여 추가
-            ImageIcon whiteIcon = new ImageIcon(getClass().getResource("/images/white.png"));
-            Image resizedWhite = whiteIcon.getImage().getScaledInstance(50, 50, Image.SCALE_SMOOTH);
-            JLabel imageLabel = new JLabel(new ImageIcon(resizedWhite));
+            JLabel imageLabel = new JLabel(Resources.icon("/images/white.png", 50, 50));
             imageLabel.setBounds(200, 140, 50, 50); // 이미지의 위치와 크기 설정
             infoPanel.add(imageLabel);
         }
@@ -382,8 +408,80 @@ public class GomokuClient {
     private void enableReplayMode() {
         if (!isGameEnded) return;
 
+        if (archivedGameId > 0) {
+            openArchivedReplay();
+            return;
+        }
         currentReplayStep = gameHistory.size() - 1;
+        showReplayControls();
+    }
+
+    // 서버에 보관된 기보로 다시 본다. 마지막 수까지 둔 보드에서 시작하고 수는 넘겨 볼 때 구간별로 받아 온다.
+    // 서버에 연결할 수 없으면 이 클라이언트가 기록한 수로 다시 본다.
+    private void openArchivedReplay() {
+        new Thread(() -> {
+            try {
+                replayStream = new ReplayStream(serverAddress, port);
+                Message finalBoard = replayStream.seek(archivedGameId, BOARD_SIZE * BOARD_SIZE);
+                int moveCount = replayStream.getInfo().row;
+                SwingUtilities.invokeLater(() -> {
+                    for (int i = 0; i < BOARD_SIZE; i++) {
+                        for (int j = 0; j < BOARD_SIZE; j++) {
+                            board[i][j] = finalBoard.cellAt(i, j);
+                        }
+                    }
+                    archivedMoves = new TurnRecord[moveCount];
+                    currentReplayStep = moveCount - 1;
+                    gamePanel.repaint();
+                    showReplayControls();
+                });
+            } catch (IOException e) {
+                System.out.println("Archived replay unavailable: " + e.getMessage());
+                SwingUtilities.invokeLater(() -> {
+                    currentReplayStep = gameHistory.size() - 1;
+                    showReplayControls();
+                });
+            }
+        }).start();
+    }
+
+    private int replayLength() {
+        return archivedMoves != null ? archivedMoves.length : gameHistory.size();
+    }
+
+    // ply번째 수. 서버 기보에서 아직 받지 않은 구간이면 받아 오기 시작하고 null을 돌려준다.
+    // 다 받으면 EDT에서 retry를 다시 호출한다.
+    private TurnRecord replayMove(int ply, Runnable retry) {
+        if (archivedMoves == null) return gameHistory.get(ply);
+        if (archivedMoves[ply] != null) return archivedMoves[ply];
+        if (replayLoading) return null;
+
+        replayLoading = true;
+        int from = ply / REPLAY_FETCH * REPLAY_FETCH;
+        new Thread(() -> {
+            try {
+                byte[] moves = replayStream.range(archivedGameId, from, from + REPLAY_FETCH);
+                SwingUtilities.invokeLater(() -> {
+                    for (int i = 0; i < moves.length / 3; i++) {
+                        char symbol = (char) moves[i * 3 + 2];
+                        archivedMoves[from + i] = new TurnRecord(moves[i * 3], moves[i * 3 + 1], symbol,
+                                symbol == 'X' ? "Player 1 (X)." : "Player 2 (O).");
+                    }
+                    replayLoading = false;
+                    retry.run();
+                });
+            } catch (IOException e) {
+                SwingUtilities.invokeLater(() -> {
+                    replayLoading = false;
+                    JOptionPane.showMessageDialog(frame, "기보를 불러올 수 없습니다: " + e.getMessage(),
+                            "오류", JOptionPane.WARNING_MESSAGE);
+                });
+            }
+        }).start();
+        return null;
+    }
 
+    private void showReplayControls() {
         SwingUtilities.invokeLater(() -> {
             JOptionPane.showMessageDialog(frame,
                     "게임 기록 재생이 가능합니다.\n" +
@@ -402,9 +500,10 @@ public class GomokuClient {
     private void showPreviousStep() {
         if (currentReplayStep >= 0) { // 첫 번째 수 이하로 내려가지 않도록 조건 설정
             // 현재 단계의 돌 제거
-            TurnRecord record = gameHistory.get(currentReplayStep);
+            TurnRecord record = replayMove(currentReplayStep, this::showPreviousStep);
+            if (record == null) return; // 서버에서 받아 오는 중
             board[record.row][record.col] = '.'; // 현재 기록의 돌만 제거
-            gamePanel.repaint(); // 보드 갱신
+            gamePanel.repaintCell(record.row, record.col); // 보드 갱신
 
             // 이전 단계로 이동
             currentReplayStep--;
@@ -415,14 +514,16 @@ public class GomokuClient {
 
 
     private void showNextStep() {
-        if (currentReplayStep < gameHistory.size() - 1) { // 마지막 단계 이상으로 넘어가지 않도록 조건 설정
+        if (currentReplayStep < replayLength() - 1) { // 마지막 단계 이상으로 넘어가지 않도록 조건 설정
+            TurnRecord record = replayMove(currentReplayStep + 1, this::showNextStep);
+            if (record == null) return; // 서버에서 받아 오는 중
+
             // 다음 단계로 이동
             currentReplayStep++;
 
             // 기록에서 돌 추가
-            TurnRecord record = gameHistory.get(currentReplayStep);
             board[record.row][record.col] = record.playerSymbol; // 해당 위치에 돌 추가
-            gamePanel.repaint(); // 보드 갱신
+            gamePanel.repaintCell(record.row, record.col); // 보드 갱신
         } else {
             JOptionPane.showMessageDialog(frame, "마지막 수입니다.", "알림", JOptionPane.INFORMATION_MESSAGE);
         }
@@ -475,12 +576,13 @@ public class GomokuClient {
                 return;
             }
             if (!undoRequested) {
-                try {
-                    output.writeUTF("UNDO_REQUEST");
-                    undoRequested = true;
-                } catch (IOException ex) {
-                    ex.printStackTrace();
-                }
+                // 상대의 마지막 수만 무르거나, 내 마지막 수까지 두 수를 무른다.
+                Object[] options = {"1수 (상대 수)", "2수 (내 수까지)", "취소"};
+                int choice = JOptionPane.showOptionDialog(frame, "몇 수를 무를까요?", "무르기 요청",
+                        JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, options, options[0]);
+                if (choice != 0 && choice != 1) return;
+                sendToServer(Message.undo(MessageType.UNDO_REQUEST, choice + 1));
+                undoRequested = true;
             } else {
                 JOptionPane.showMessageDialog(frame, "이미 무르기를 요청했습니다.");
             }
@@ -527,15 +629,11 @@ public class GomokuClient {
     private void sendMessage() {
         String message = messageField.getText();
         if (!message.isEmpty()) {
-            try {
-                // 서버에 메시지 전송
-                output.writeUTF("CHAT:" + playerRole + ": " + message);
+            // 서버에 메시지 전송
+            sendToServer(Message.chat(playerRole + ": " + message));
 
-                // 메시지 입력 필드 초기화
-                messageField.setText("");
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+            // 메시지 입력 필드 초기화
+            messageField.setText("");
         }
     }
 
@@ -574,9 +672,14 @@ public class GomokuClient {
 
     // 게임판을 그리는 커스터마이즈된 패널 클래스
     private class GamePanel extends JPanel {
+        // 화면 배율에 맞춰 미리 줄여 둔 돌 이미지. 배율이 1이면 그릴 때 크기 변환이 없다.
         private Image blackStone;
         private Image whiteStone;
         private static final int PADDING = 20; // 바둑판 가장자리 여백
+        private static final int STONE_SIZE = (int) (CELL_SIZE * 0.8);
+        // 배경, 격자, 외곽선, 별점을 미리 그려 둔 판. 크기나 화면 배율이 바뀔 때만 다시 그린다.
+        private transient BufferedImage boardLayer;
+        private double boardLayerScale;
 
         public GamePanel() {
             setPreferredSize(new Dimension(
@@ -584,9 +687,7 @@ public class GomokuClient {
                     BOARD_SIZE * CELL_SIZE + PADDING * 2));
             setOpaque(false);
 
-            // 이미지 로드
-            blackStone = new ImageIcon(getClass().getResource("/images/black.png")).getImage();
-            whiteStone = new ImageIcon(getClass().getResource("/images/white.png")).getImage();
+            loadStones(1.0);
 
             addMouseListener(new MouseAdapter() {
                 @Override
@@ -734,33 +835,83 @@ public class GomokuClient {
         }
 
 
+        // 돌 하나가 놓이거나 빠진 칸만 다시 그린다. 어느 스레드에서 불러도 된다.
+        void repaintCell(int row, int col) {
+            repaint(PADDING + col * CELL_SIZE - STONE_SIZE / 2 - 1, PADDING + row * CELL_SIZE - STONE_SIZE / 2 - 1,
+                    STONE_SIZE + 2, STONE_SIZE + 2);
+        }
+
         @Override
         protected void paintComponent(Graphics g) {
             super.paintComponent(g);
+            if (getWidth() <= 0 || getHeight() <= 0) return;
             Graphics2D g2d = (Graphics2D) g;
 
+            // 고해상도 화면에서는 배율만큼 큰 이미지로 그려야 흐려지지 않는다.
+            double scale = g2d.getTransform().getScaleX();
+            if (boardLayer == null || boardLayerScale != scale
+                    || boardLayer.getWidth() != (int) Math.ceil(getWidth() * scale)
+                    || boardLayer.getHeight() != (int) Math.ceil(getHeight() * scale)) {
+                boardLayer = createBoardLayer(scale);
+                boardLayerScale = scale;
+                loadStones(scale);
+            }
+            g2d.drawImage(boardLayer, 0, 0, getWidth(), getHeight(), null);
+
+            // 돌 그리기. 다시 그릴 영역(clip)에 걸친 칸만 본다.
+            Rectangle clip = g.getClipBounds();
+            if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+            int firstRow = Math.max(0, (clip.y - PADDING - STONE_SIZE / 2) / CELL_SIZE);
+            int lastRow = Math.min(BOARD_SIZE - 1, (clip.y + clip.height - PADDING + STONE_SIZE / 2) / CELL_SIZE);
+            int firstCol = Math.max(0, (clip.x - PADDING - STONE_SIZE / 2) / CELL_SIZE);
+            int lastCol = Math.min(BOARD_SIZE - 1, (clip.x + clip.width - PADDING + STONE_SIZE / 2) / CELL_SIZE);
+            for (int i = firstRow; i <= lastRow; i++) {
+                for (int j = firstCol; j <= lastCol; j++) {
+                    int x = PADDING + j * CELL_SIZE - STONE_SIZE / 2;
+                    int y = PADDING + i * CELL_SIZE - STONE_SIZE / 2;
+                    if (board[i][j] == 'X') {
+                        g.drawImage(blackStone, x, y, STONE_SIZE, STONE_SIZE, null);
+                    } else if (board[i][j] == 'O') {
+                        g.drawImage(whiteStone, x, y, STONE_SIZE, STONE_SIZE, null);
+                    }
+                }
+            }
+        }
+
+        // 여러 창이 Resources 캐시의 같은 이미지를 쓴다.
+        private void loadStones(double scale) {
+            int size = (int) Math.round(STONE_SIZE * scale);
+            blackStone = Resources.scaled("/images/black.png", size, size);
+            whiteStone = Resources.scaled("/images/white.png", size, size);
+        }
+
+        // 돌을 뺀 판 전체를 이미지 하나로 그린다.
+        private BufferedImage createBoardLayer(double scale) {
+            BufferedImage image = new BufferedImage((int) Math.ceil(getWidth() * scale),
+                    (int) Math.ceil(getHeight() * scale), BufferedImage.TYPE_INT_RGB);
+            Graphics2D g2d = image.createGraphics();
+            g2d.setTransform(AffineTransform.getScaleInstance(scale, scale));
+
             // 배경 그리기
             g2d.setColor(new Color(245, 222, 179)); // 바둑판 배경 색상
             g2d.fillRect(0, 0, getWidth(), getHeight());
 
             // 바둑판 그리기
-            g.setColor(Color.BLACK);
+            g2d.setColor(Color.BLACK);
             g2d.setStroke(new BasicStroke(1));
             for (int i = 0; i < BOARD_SIZE; i++) {
                 int x = PADDING + i * CELL_SIZE;
                 int y = PADDING + i * CELL_SIZE;
-                g.drawLine(PADDING, y, PADDING + (BOARD_SIZE - 1) * CELL_SIZE, y); // 가로선
-                g.drawLine(x, PADDING, x, PADDING + (BOARD_SIZE - 1) * CELL_SIZE); // 세로선
+                g2d.drawLine(PADDING, y, PADDING + (BOARD_SIZE - 1) * CELL_SIZE, y); // 가로선
+                g2d.drawLine(x, PADDING, x, PADDING + (BOARD_SIZE - 1) * CELL_SIZE); // 세로선
             }
 
             // 외곽선 그리기
-            g.setColor(Color.BLACK);
             g2d.setStroke(new BasicStroke(2)); // 두꺼운 선
             int boardSizeWithPadding = BOARD_SIZE * CELL_SIZE; // 여백 포함 크기
             g2d.drawRect(PADDING, PADDING, boardSizeWithPadding - CELL_SIZE, boardSizeWithPadding - CELL_SIZE); // 여백을 위한 좌표 설정
 
             // 교차점 강조 (별점 그리기)
-            g2d.setColor(Color.BLACK);
             int dotSize = 6; // 점 크기
             int[][] starPoints = { // 정확한 교차점 위치
                     {3, 3}, {3, 15}, {15, 3}, {15, 15}, {9, 9}, {3, 9}, {9, 3}, {9, 15}, {15, 9}
@@ -770,40 +921,9 @@ public class GomokuClient {
                 int y = PADDING + point[1] * CELL_SIZE - dotSize / 2; // 별점의 중심 조정
                 g2d.fillOval(x, y, dotSize, dotSize);
             }
-
-            // 돌 그리기 및 기록 추가
-            int stoneSize = (int) (CELL_SIZE * 0.8);
-            for (int i = 0; i < BOARD_SIZE; i++) {
-                for (int j = 0; j < BOARD_SIZE; j++) {
-                    final int row = i; // final 변수 선언
-                    final int col = j; // final 변수 선언
-
-                    int x = PADDING + j * CELL_SIZE - stoneSize / 2;
-                    int y = PADDING + i * CELL_SIZE - stoneSize / 2;
-                    if (board[i][j] == 'X' || board[i][j] == 'O') {
-                        // 돌 그리기
-                        if (board[i][j] == 'X') {
-                            g.drawImage(blackStone, x, y, stoneSize, stoneSize, this);
-                        } else if (board[i][j] == 'O') {
-                            g.drawImage(whiteStone, x, y, stoneSize, stoneSize, this);
-                        }
-
-                        // 기록 추가
-                        boolean alreadyRecorded = gameHistory.stream()
-                                .anyMatch(record -> record.row == row && record.col == col);
-                        if (!alreadyRecorded) {
-                            String player = board[i][j] == 'X' ? "Player 1 (X)." : "Player 2 (O).";
-                            gameHistory.add(new TurnRecord(row, col, board[i][j], player));
-
-                            // 디버깅 출력
-                            System.out.println("기록 추가됨: Row = " + row + ", Col = " + col + ", Symbol = " + board[i][j] + ", Role = " + player);
-                        }
-                    }
-                }
-            }
+            g2d.dispose();
+            return image;
         }
-
-
     }
 
     public static void main(String[] args) {
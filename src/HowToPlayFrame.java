@@ -1,6 +1,5 @@
 import javax.swing.*;
 import java.awt.*;
-import java.io.InputStream;
 
 public class HowToPlayFrame extends JFrame {
     public HowToPlayFrame(GameFrame mainFrame) {
@@ -10,14 +9,12 @@ public class HowToPlayFrame extends JFrame {
         setLayout(null); // 레이아웃 매니저 제거
         setLocationRelativeTo(null); // 화면 중앙에 창 배치
 
-        Font customFont = loadCustomFont("/fonts/CookieRun Regular.otf", 18f);
+        Font customFont = Resources.font("/fonts/CookieRun Regular.otf", 18f);
 
         // 배경 이미지 추가
         JLabel background = new JLabel();
         try {
-            ImageIcon bgIcon = new ImageIcon(getClass().getResource("/images/background.jpg")); // 리소스에서 이미지 로드
-            Image scaledImage = bgIcon.getImage().getScaledInstance(600, 400, Image.SCALE_SMOOTH); // 크기 조정
-            background.setIcon(new ImageIcon(scaledImage));
+            background.setIcon(Resources.icon("/images/background.jpg", 600, 400)); // 캐시에서 크기 맞춘 이미지
         } catch (Exception e) {
             System.err.println("배경 이미지를 로드할 수 없습니다: " + e.getMessage());
         }
@@ -66,19 +63,6 @@ public class HowToPlayFrame extends JFrame {
         return button;
     }
 
-    private Font loadCustomFont(String path, float size) {
-        try {
-            InputStream fontStream = getClass().getResourceAsStream(path);
-            if (fontStream == null) {
-                System.err.println("폰트 파일을 찾을 수 없습니다: " + path);
-                return null;
-            }
-            return Font.createFont(Font.TRUETYPE_FONT, fontStream).deriveFont(size);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
-        }
-    }
 
     class RoundedButton extends JButton {
         private final int radius;
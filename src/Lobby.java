@@ -0,0 +1,127 @@
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// 접속한 연결이 방에 들어가기 전까지 머무는 곳.
+// 첫 프레임으로 새 플레이어(LOGIN)인지 다시 접속한 클라이언트(RESUME)인지, 보관된 대국을
+// 보려는 연결(REPLAY_*, GAMES_REQUEST, LEADERBOARD_REQUEST)인지, 진행 중인 방을 보려는 관전자(WATCH)인지 구분한다.
+// HELLO는 버전 협상일 뿐이라 그 다음 프레임을 더 기다린다. 아무것도 보내지 않는 기존 텍스트
+// 클라이언트나 LOGIN 없이 HELLO만 보내는 클라이언트는 LEGACY_JOIN_DELAY_MS 뒤에 GUEST로 받는다.
+// 새 플레이어는 Matchmaker에 넣어 레이팅이 가까운 상대와 방을 만든다. 방이 생기기 전에 받은 프레임은
+// Matchmaker가 모아 뒀다가 방에 넘긴다.
+public class Lobby implements FrameListener {
+    private static final long LEGACY_JOIN_DELAY_MS = 300;
+    private static final int MAX_NAME_LENGTH = 16;
+
+    private final RoomManager roomManager;
+    private final Matchmaker matchmaker;
+    private final ReplayService replayService;
+    private final ScheduledExecutorService scheduler;
+    // 아직 첫 프레임을 기다리는 연결과 그 대기 시한
+    private final Map<Connection, ScheduledFuture<?>> undecided = new ConcurrentHashMap<>();
+
+    public Lobby(RoomManager roomManager, Matchmaker matchmaker, ReplayService replayService,
+                 ScheduledExecutorService scheduler) {
+        this.roomManager = roomManager;
+        this.matchmaker = matchmaker;
+        this.replayService = replayService;
+        this.scheduler = scheduler;
+    }
+
+    public void admit(Connection connection) {
+        roomManager.getStats().connectionOpened();
+        undecided.put(connection, scheduler.schedule(() -> decide(connection, null),
+                LEGACY_JOIN_DELAY_MS, TimeUnit.MILLISECONDS));
+        connection.startReading(this);
+    }
+
+    @Override
+    public void onFrame(Connection from, Message message) {
+        if (message.type == MessageType.HELLO) return;
+        if (!decide(from, message)) matchmaker.hold(from, message);
+    }
+
+    // 연결을 어디로 보낼지 정할 첫 프레임이면 true를 돌려준다.
+    private boolean decide(Connection connection, Message first) {
+        ScheduledFuture<?> timeout = undecided.remove(connection);
+        if (timeout == null) return false;
+        timeout.cancel(false);
+
+        if (first != null && first.type == MessageType.LOGIN) {
+            connection.setPlayerName(validName(first.text));
+            matchmaker.enqueue(connection);
+            return true;
+        }
+        if (first != null && (first.type == MessageType.REPLAY_REQUEST || first.type == MessageType.REPLAY_SEEK
+                || first.type == MessageType.GAMES_REQUEST || first.type == MessageType.LEADERBOARD_REQUEST)) {
+            replayService.attach(connection, first);
+            return true;
+        }
+        if (first != null && first.type == MessageType.WATCH) {
+            watch(connection, first.row);
+            return true;
+        }
+        if (first == null || first.type != MessageType.RESUME) {
+            matchmaker.enqueue(connection);
+            // 기존 클라이언트가 역할을 받기 전에 보낸 프레임
+            if (first != null) matchmaker.hold(connection, first);
+            return true;
+        }
+        boolean resumed = false;
+        try {
+            resumed = roomManager.resume(first.text, first.seq, connection);
+            if (!resumed) {
+                System.out.println("Unknown or taken session from " + connection.getRemoteAddress());
+                connection.send(Message.notice("Session expired."));
+            }
+        } catch (IOException e) {
+            System.out.println("Error resuming player: " + e.getMessage());
+        }
+        if (!resumed) {
+            roomManager.getStats().connectionClosed();
+            connection.close();
+        }
+        return true;
+    }
+
+    // 관전자는 변경분을 받아야 하므로 바이너리로 협상한 연결만 받는다.
+    private void watch(Connection connection, int roomId) {
+        try {
+            if (!connection.isBinary()) {
+                connection.send(Message.notice("Spectating requires protocol 2."));
+            } else if (roomManager.watch(roomId, connection)) {
+                return;
+            } else {
+                connection.send(Message.notice("No such room: " + roomId));
+            }
+        } catch (IOException e) {
+            System.out.println("Error adding spectator: " + e.getMessage());
+        }
+        roomManager.getStats().connectionClosed();
+        connection.close();
+    }
+
+    // 글자, 숫자, '_', '-'로 된 16자 이하의 이름만 받는다.
+    private static String validName(String name) {
+        String trimmed = name.trim();
+        if (trimmed.isEmpty() || trimmed.length() > MAX_NAME_LENGTH) return Connection.GUEST;
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '-') return Connection.GUEST;
+        }
+        return trimmed;
+    }
+
+    // 방에 들어가기 전에 끊긴 연결을 정리한다.
+    @Override
+    public void onClose(Connection from) {
+        ScheduledFuture<?> timeout = undecided.remove(from);
+        if (timeout != null) timeout.cancel(false);
+        if (matchmaker.cancel(from) || timeout != null) {
+            roomManager.getStats().connectionClosed();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// 파일을 SEGMENT 크기 조각으로 나눠 메모리에 매핑하고 long 위치로 읽고 쓴다.
+// MappedByteBuffer 하나는 2GB를 넘을 수 없으므로 조각을 필요할 때마다 더 매핑한다.
+// 값 하나가 두 조각에 걸치면 안 되므로 호출자가 조각 경계를 넘지 않게 배치해야 한다.
+// 읽기는 절대 위치 get만 쓰므로 여러 스레드가 동시에 읽어도 된다. 쓰기는 호출자가 한 번에 하나씩 한다.
+class MappedFile implements Closeable {
+    static final int SEGMENT = 64 << 20;
+
+    private final FileChannel channel;
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+
+    MappedFile(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+    }
+
+    private MappedByteBuffer segment(long position) {
+        int index = (int) (position / SEGMENT);
+        MappedByteBuffer[] current = segments;
+        if (index < current.length) return current[index];
+        return map(index);
+    }
+
+    // 쓰기 모드로 매핑하면 파일이 조각 끝까지 늘어난다. 실제 데이터의 끝은 호출자가 따로 기록한다.
+    private synchronized MappedByteBuffer map(int index) {
+        MappedByteBuffer[] current = segments;
+        if (index < current.length) return current[index];
+        MappedByteBuffer[] grown = Arrays.copyOf(current, index + 1);
+        try {
+            for (int i = current.length; i <= index; i++) {
+                grown[i] = channel.map(FileChannel.MapMode.READ_WRITE, (long) i * SEGMENT, SEGMENT);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segments = grown;
+        return grown[index];
+    }
+
+    byte get(long position) {
+        return segment(position).get((int) (position % SEGMENT));
+    }
+
+    short getShort(long position) {
+        return segment(position).getShort((int) (position % SEGMENT));
+    }
+
+    int getInt(long position) {
+        return segment(position).getInt((int) (position % SEGMENT));
+    }
+
+    long getLong(long position) {
+        return segment(position).getLong((int) (position % SEGMENT));
+    }
+
+    void put(long position, byte value) {
+        segment(position).put((int) (position % SEGMENT), value);
+    }
+
+    void putShort(long position, short value) {
+        segment(position).putShort((int) (position % SEGMENT), value);
+    }
+
+    void putInt(long position, int value) {
+        segment(position).putInt((int) (position % SEGMENT), value);
+    }
+
+    void putLong(long position, long value) {
+        segment(position).putLong((int) (position % SEGMENT), value);
+    }
+
+    // [position, position + length) 구간을 디스크에 내린다. 구간은 한 조각 안에 있어야 한다.
+    void force(long position, int length) {
+        segment(position).force((int) (position % SEGMENT), length);
+    }
+
+    // 바뀐 내용을 모두 디스크에 내린다.
+    void force() {
+        for (MappedByteBuffer segment : segments) segment.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+}
@@ -0,0 +1,304 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+// 방을 기다리는 플레이어를 레이팅이 가까운 상대와 짝짓는다.
+// 대기열은 (레이팅, 도착 순번)을 키로 정렬한 TreeMap이라 가장 가까운 상대를 위아래로 한 번씩만 찾으면 된다.
+// 대기 인원이 많아도 짝짓기는 O(log n)이다. 같은 레이팅이면 먼저 온 사람이 먼저 뽑힌다.
+// 허용하는 레이팅 차이는 BASE_WINDOW에서 시작해 WIDEN_INTERVAL_MS마다 WIDEN_STEP씩 넓어진다.
+// 새로 들어온 플레이어는 들어오는 즉시, 기다리던 플레이어는 SWEEP_INTERVAL_MS마다 범위가 넓어졌을 때 다시 찾아본다.
+// 짝이 정해지면 방 만들기는 handoff executor에서 하므로 접속을 받는 쪽은 멈추지 않는다. 오래 기다린 쪽이 흑이다.
+// botAfterMillis가 지나도록 상대를 찾지 못한 플레이어는 봇과 짝짓는다. 이때는 사람이 흑이다.
+public class Matchmaker {
+    private static final int BASE_WINDOW = 100;
+    private static final int WIDEN_STEP = 100;
+    private static final long WIDEN_INTERVAL_MS = 5000;
+    private static final long SWEEP_INTERVAL_MS = 1000;
+
+    private final RoomManager roomManager;
+    private final ToIntFunction<String> ratings; // 플레이어 이름 → 레이팅
+    private final Executor handoff;
+    private final ScheduledExecutorService scheduler;
+    private final long botAfterMillis;       // 0이면 봇과 짝짓지 않는다
+    private final Supplier<Connection> bots; // 새 봇을 만든다
+    private final ReentrantLock lock = new ReentrantLock();
+    private final TreeMap<Long, Ticket> queue = new TreeMap<>();                  // (레이팅 << 32 | 순번) → 대기표
+    private final Map<Connection, Ticket> tickets = new HashMap<>();              // 방에 들어가기 전까지의 모든 대기표
+    private final LinkedHashMap<Connection, Ticket> waiting = new LinkedHashMap<>(); // queue에 있는 대기표, 도착 순서
+    private int nextSeq = 0;
+
+    // 방을 기다리는 플레이어 한 명. 짝이 정해진 뒤에도 방이 생길 때까지 tickets에 남는다.
+    private static final class Ticket {
+        final Connection connection;
+        final int rating;
+        final long key;
+        final long enqueuedAt; // System.nanoTime
+        final boolean bot;     // sweep()이 붙인 봇. tickets에 넣지 않고 방이 생길 때 연결 수에 넣는다
+        int triedWindow;       // 마지막으로 찾아본 범위. 넓어지지 않았으면 다시 찾지 않는다
+        final List<Message> frames = new ArrayList<>(); // 방이 생기기 전에 받은 프레임
+        GameRoom room;         // 방이 생기면 채운다
+
+        Ticket(Connection connection, int rating, int seq, long enqueuedAt, boolean bot) {
+            this.connection = connection;
+            this.rating = rating;
+            this.key = ((long) rating << 32) | (seq & 0xFFFFFFFFL);
+            this.enqueuedAt = enqueuedAt;
+            this.bot = bot;
+        }
+
+        int window(long now) {
+            long widenings = (now - enqueuedAt) / TimeUnit.MILLISECONDS.toNanos(WIDEN_INTERVAL_MS);
+            return (int) Math.min(Integer.MAX_VALUE, BASE_WINDOW + widenings * WIDEN_STEP);
+        }
+    }
+
+    public Matchmaker(RoomManager roomManager, ToIntFunction<String> ratings, Executor handoff,
+                      ScheduledExecutorService scheduler, long botAfterMillis, Supplier<Connection> bots) {
+        this.roomManager = roomManager;
+        this.ratings = ratings;
+        this.handoff = handoff;
+        this.scheduler = scheduler;
+        this.botAfterMillis = botAfterMillis;
+        this.bots = bots;
+    }
+
+    // 기다리던 플레이어를 주기적으로 다시 찾아보기 시작한다.
+    public void start() {
+        scheduler.scheduleAtFixedRate(this::sweep, SWEEP_INTERVAL_MS, SWEEP_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public int getWaitingCount() {
+        lock.lock();
+        try {
+            return waiting.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 대기열에 넣고 바로 상대를 찾아본다.
+    public void enqueue(Connection connection) {
+        int rating = ratings.applyAsInt(connection.getPlayerName());
+        Ticket[] pair;
+        lock.lock();
+        try {
+            Ticket ticket = new Ticket(connection, rating, nextSeq++, System.nanoTime(), false);
+            tickets.put(connection, ticket);
+            pair = match(ticket, System.nanoTime());
+            if (pair == null) {
+                queue.put(ticket.key, ticket);
+                waiting.put(connection, ticket);
+            }
+        } finally {
+            lock.unlock();
+        }
+        System.out.println("Player queued: " + connection.getPlayerName() + " (" + rating + ") "
+                + connection.getRemoteAddress());
+        if (pair != null) handoff.execute(() -> startMatch(pair[0], pair[1]));
+    }
+
+    // 방이 생기기 전에 받은 프레임은 모아 뒀다가 방에 넘긴다. 방이 이미 생겼으면 바로 넘긴다.
+    public void hold(Connection connection, Message message) {
+        GameRoom room;
+        lock.lock();
+        try {
+            Ticket ticket = tickets.get(connection);
+            if (ticket == null) return;
+            room = ticket.room;
+            if (room == null) {
+                ticket.frames.add(message);
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        room.onFrame(connection, message);
+    }
+
+    // 방에 들어가기 전에 끊긴 연결을 뺀다. 대기 중이었으면 true
+    // 방에 넘겨졌지만 방이 아직 읽기 시작하기 전이면 방에 끊김을 알리고, 연결 수는 방이 센다.
+    public boolean cancel(Connection connection) {
+        GameRoom room;
+        lock.lock();
+        try {
+            Ticket ticket = tickets.remove(connection);
+            if (ticket == null) return false;
+            room = ticket.room;
+            if (room == null) {
+                if (waiting.remove(connection) != null) queue.remove(ticket.key);
+                return true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        room.onClose(connection);
+        return false;
+    }
+
+    // 잠금 안에서 호출한다. ticket은 아직 queue에 없다.
+    // 위아래로 가장 가까운 대기자 중 더 가까운 쪽이 범위 안이면 queue에서 꺼내 [흑, 백] 순서로 돌려준다.
+    private Ticket[] match(Ticket ticket, long now) {
+        int window = ticket.window(now);
+        ticket.triedWindow = window;
+        Map.Entry<Long, Ticket> above = queue.ceilingEntry((long) ticket.rating << 32);
+        Map.Entry<Long, Ticket> below = queue.lowerEntry((long) ticket.rating << 32);
+        Ticket best = null;
+        if (above != null) best = above.getValue();
+        if (below != null && (best == null
+                || ticket.rating - below.getValue().rating < best.rating - ticket.rating)) {
+            best = below.getValue();
+        }
+        if (best == null) return null;
+
+        // 오래 기다려 범위가 넓어진 상대는 그 범위를 쓴다.
+        int distance = Math.abs(best.rating - ticket.rating);
+        if (distance > window && distance > best.window(now)) return null;
+
+        queue.remove(best.key);
+        waiting.remove(best.connection);
+        return best.enqueuedAt <= ticket.enqueuedAt ? new Ticket[]{best, ticket} : new Ticket[]{ticket, best};
+    }
+
+    // 범위가 넓어진 대기자만 오래 기다린 순서로 다시 찾아본다. 그래도 짝이 없고 오래 기다렸으면 봇을 붙인다.
+    private void sweep() {
+        List<Ticket[]> pairs = new ArrayList<>();
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            List<Ticket> widened = new ArrayList<>();
+            for (Ticket ticket : waiting.values()) {
+                if (ticket.window(now) > ticket.triedWindow) widened.add(ticket);
+            }
+            for (Ticket ticket : widened) {
+                if (!waiting.containsKey(ticket.connection)) continue; // 앞에서 다른 대기자와 짝지어졌다
+                // 자기 자신을 고르지 않도록 queue에서만 잠시 뺀다. waiting의 도착 순서는 그대로 둔다.
+                queue.remove(ticket.key);
+                Ticket[] pair = match(ticket, now);
+                if (pair != null) {
+                    waiting.remove(ticket.connection);
+                    pairs.add(pair);
+                } else {
+                    queue.put(ticket.key, ticket);
+                }
+            }
+            if (botAfterMillis > 0) {
+                long botAfter = TimeUnit.MILLISECONDS.toNanos(botAfterMillis);
+                List<Ticket> lonely = new ArrayList<>();
+                for (Ticket ticket : waiting.values()) {
+                    if (now - ticket.enqueuedAt >= botAfter) lonely.add(ticket);
+                }
+                for (Ticket ticket : lonely) {
+                    queue.remove(ticket.key);
+                    waiting.remove(ticket.connection);
+                    Ticket bot = new Ticket(bots.get(), ticket.rating, nextSeq++, now, true);
+                    pairs.add(new Ticket[]{ticket, bot});
+                }
+            }
+        } catch (RuntimeException e) {
+            System.out.println("[Matchmaker] Sweep failed: " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+        for (Ticket[] pair : pairs) handoff.execute(() -> startMatch(pair[0], pair[1]));
+    }
+
+    // 자리를 알리고 방을 만든다. 한쪽에 보내지 못하면 그 연결을 닫고 다른 쪽은 대기열로 돌려보낸다.
+    private void startMatch(Ticket black, Ticket white) {
+        System.out.println("Matched " + black.connection.getPlayerName() + " (" + black.rating + ") vs "
+                + white.connection.getPlayerName() + " (" + white.rating + ")");
+        if (!sendRole(black, 1)) {
+            requeue(white);
+            return;
+        }
+        if (!sendRole(white, 2)) {
+            requeue(black);
+            return;
+        }
+
+        GameRoom room = roomManager.createRoom(black.connection, white.connection);
+        if (white.bot) roomManager.getStats().connectionOpened(); // 방이 닫을 때 다른 연결처럼 센다
+        System.out.println("Room " + room.getRoomId() + " created. Active rooms: " + roomManager.getRoomCount());
+        // 모아 둔 프레임을 다 넘긴 뒤에야 방이 직접 읽게 해서, 나중에 온 프레임이 먼저 처리되지 않게 한다.
+        for (Ticket ticket : new Ticket[]{black, white}) {
+            boolean connected = handOver(ticket, room);
+            ticket.connection.startReading(room);
+            if (!connected) {
+                // 로비가 이미 끊김을 셌고 방이 다시 세므로 한 번 되돌린다.
+                roomManager.getStats().connectionOpened();
+                room.onClose(ticket.connection);
+            }
+        }
+        lock.lock();
+        try {
+            tickets.remove(black.connection, black);
+            tickets.remove(white.connection, white);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 방이 생기기 전에 받은 프레임을 받은 순서대로 방에 넘기고, 더 쌓인 것이 없으면 대기표를 방에 묶는다.
+    // 그 뒤로 로비를 거쳐 오는 프레임은 hold()가 바로 방에 넘긴다. 그 사이에 끊겼으면 false
+    private boolean handOver(Ticket ticket, GameRoom room) {
+        if (ticket.bot) return true;
+        while (true) {
+            List<Message> frames;
+            lock.lock();
+            try {
+                if (tickets.get(ticket.connection) != ticket) return false;
+                if (ticket.frames.isEmpty()) {
+                    ticket.room = room;
+                    return true;
+                }
+                frames = new ArrayList<>(ticket.frames);
+                ticket.frames.clear();
+            } finally {
+                lock.unlock();
+            }
+            for (Message message : frames) room.onFrame(ticket.connection, message);
+        }
+    }
+
+    private boolean sendRole(Ticket ticket, int seat) {
+        try {
+            ticket.connection.send(Message.role(seat));
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error accepting player: " + e.getMessage());
+            if (cancel(ticket.connection)) roomManager.getStats().connectionClosed();
+            ticket.connection.close();
+            return false;
+        }
+    }
+
+    // 기다린 시간은 그대로 두고 대기열에 다시 넣는다. 봇은 상대가 없어졌으므로 닫는다.
+    private void requeue(Ticket ticket) {
+        if (ticket.bot) {
+            ticket.connection.close();
+            return;
+        }
+        Ticket[] pair;
+        lock.lock();
+        try {
+            if (tickets.get(ticket.connection) != ticket) return; // 그 사이에 끊겼다
+            pair = match(ticket, System.nanoTime());
+            if (pair == null) {
+                queue.put(ticket.key, ticket);
+                waiting.put(ticket.connection, ticket);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (pair != null) handoff.execute(() -> startMatch(pair[0], pair[1]));
+    }
+}
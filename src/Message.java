@@ -0,0 +1,184 @@
+// 프로토콜 메시지 하나. 전송 형식(텍스트/바이너리)과 상관없이 서버와 클라이언트가 함께 쓴다.
+public final class Message {
+    private static final int BOARD_SIZE = 19;
+    private static final Message[] SIMPLE = new Message[MessageType.values().length];
+
+    static {
+        for (MessageType type : MessageType.values()) {
+            SIMPLE[type.ordinal()] = new Message(type, -1, -1, null, null);
+        }
+    }
+
+    public final MessageType type;
+    public final int row;       // MOVE: 행, ROLE: 자리 번호(1/2), HELLO/HELLO_ACK: 버전, WATCH: 방 번호, UNDO_*: 무를 수의 개수, CLOCK: 흑 남은 ms
+                                // REPLAY_REQUEST/REPLAY_MOVES: 첫 수 번호, REPLAY_SEEK: 수 번호, REPLAY_INFO: 수 개수
+                                // LEADERBOARD_REQUEST: 인원, LEADERBOARD: 요청한 이름의 순위, GAMES_REQUEST: 대국 수
+    public final int col;       // MOVE: 열, REPLAY_REQUEST: 끝 수 번호(-1이면 끝까지), REPLAY_INFO: 결과, CLOCK: 백 남은 ms
+                                // LEADERBOARD: 요청한 이름의 레이팅
+    public final String text;   // CHAT, NOTICE, ROLE, SESSION/RESUME: 토큰, LOGIN: 이름, REPLAY_INFO: "규칙:흑:백"
+                                // LEADERBOARD_REQUEST: 순위를 볼 이름, LEADERBOARD: "이름,레이팅;..."
+                                // GAMES_REQUEST: 플레이어 이름, GAMES_LIST: "대국,대국,..."
+    public final char[] cells;  // BOARD: 19x19 칸을 행 우선으로 펼친 값 ('.', 'X', 'O')
+    public final int seq;       // BOARD, BOARD_DELTA: 보드 변경 순번 (-1이면 알 수 없음), REPLAY_*/ARCHIVED: 대국 번호,
+                                // RESUME: 클라이언트가 마지막으로 반영한 보드 순번 (-1이면 없음)
+                                // CLOCK: 시계가 가는 자리 (0 = 흑, 1 = 백, -1이면 멈춤)
+    public final byte[] changes; // BOARD_DELTA, REPLAY_MOVES: (row, col, 돌) 세 바이트씩. 돌은 '.', 'X', 'O'
+
+    private Message(MessageType type, int row, int col, String text, char[] cells) {
+        this(type, row, col, text, cells, -1, null);
+    }
+
+    private Message(MessageType type, int row, int col, String text, char[] cells, int seq, byte[] changes) {
+        this.type = type;
+        this.row = row;
+        this.col = col;
+        this.text = text;
+        this.cells = cells;
+        this.seq = seq;
+        this.changes = changes;
+    }
+
+    // 내용이 없는 메시지는 미리 만들어 둔 객체를 재사용한다.
+    public static Message of(MessageType type) {
+        return SIMPLE[type.ordinal()];
+    }
+
+    public static Message move(int row, int col) {
+        return new Message(MessageType.MOVE, row, col, null, null);
+    }
+
+    public static Message chat(String text) {
+        return new Message(MessageType.CHAT, -1, -1, text, null);
+    }
+
+    public static Message notice(String text) {
+        return new Message(MessageType.NOTICE, -1, -1, text, null);
+    }
+
+    public static Message role(int seat) {
+        return new Message(MessageType.ROLE, seat, -1, seat == 1 ? "Player 1 (X)." : "Player 2 (O).", null);
+    }
+
+    public static Message session(String token) {
+        return new Message(MessageType.SESSION, -1, -1, token, null);
+    }
+
+    public static Message resume(String token) {
+        return resume(token, -1);
+    }
+
+    public static Message resume(String token, int boardSeq) {
+        return new Message(MessageType.RESUME, -1, -1, token, null, boardSeq, null);
+    }
+
+    public static Message login(String name) {
+        return new Message(MessageType.LOGIN, -1, -1, name, null);
+    }
+
+    public static Message watch(int roomId) {
+        return new Message(MessageType.WATCH, roomId, -1, null, null);
+    }
+
+    public static Message hello(int version) {
+        return new Message(MessageType.HELLO, version, -1, null, null);
+    }
+
+    public static Message helloAck(int version) {
+        return new Message(MessageType.HELLO_ACK, version, -1, null, null);
+    }
+
+    // 무르기 요청/응답 요구/수락. depth는 무를 수의 개수
+    public static Message undo(MessageType type, int depth) {
+        return new Message(type, depth, -1, null, null);
+    }
+
+    // 보드 전체 스냅샷
+    public static Message board(char[][] board, int seq) {
+        char[] cells = new char[BOARD_SIZE * BOARD_SIZE];
+        for (int i = 0; i < BOARD_SIZE; i++) {
+            System.arraycopy(board[i], 0, cells, i * BOARD_SIZE, BOARD_SIZE);
+        }
+        return new Message(MessageType.BOARD, -1, -1, null, cells, seq, null);
+    }
+
+    public static Message board(char[] cells, int seq) {
+        return new Message(MessageType.BOARD, -1, -1, null, cells, seq, null);
+    }
+
+    // 칸 하나가 바뀐 보드 변경분
+    public static Message delta(int seq, int row, int col, char stone) {
+        return new Message(MessageType.BOARD_DELTA, -1, -1, null, null, seq, new byte[]{(byte) row, (byte) col, (byte) stone});
+    }
+
+    // 여러 칸이 바뀐 보드 변경분. changes는 (row, col, 돌) 세 바이트씩
+    public static Message delta(int seq, byte[] changes) {
+        return new Message(MessageType.BOARD_DELTA, -1, -1, null, null, seq, changes);
+    }
+
+    // 보관된 대국의 [from, to) 구간 요청. to가 -1이면 마지막 수까지
+    public static Message replayRequest(int gameId, int from, int to) {
+        return new Message(MessageType.REPLAY_REQUEST, from, to, null, null, gameId, null);
+    }
+
+    // 보관된 대국을 ply수까지 둔 보드 요청
+    public static Message replaySeek(int gameId, int ply) {
+        return new Message(MessageType.REPLAY_SEEK, ply, -1, null, null, gameId, null);
+    }
+
+    // 요청한 대국의 정보. result는 GameJournal.RESULT_* 중 하나
+    public static Message replayInfo(int gameId, int moveCount, int result, String rules, String black, String white) {
+        return new Message(MessageType.REPLAY_INFO, moveCount, result, rules + ":" + black + ":" + white, null, gameId, null);
+    }
+
+    // firstPly번째부터 이어지는 수들. changes는 (row, col, 돌) 세 바이트씩
+    public static Message replayMoves(int gameId, int firstPly, byte[] changes) {
+        return new Message(MessageType.REPLAY_MOVES, firstPly, -1, null, null, gameId, changes);
+    }
+
+    public static Message archived(int gameId) {
+        return new Message(MessageType.ARCHIVED, -1, -1, null, null, gameId, null);
+    }
+
+    // name의 최근 대국 번호를 count개까지 묻는다.
+    public static Message gamesRequest(int count, String name) {
+        return new Message(MessageType.GAMES_REQUEST, count, -1, name, null);
+    }
+
+    // gameIds는 "대국,대국,..." 최근 것부터. 대국이 없으면 빈 문자열
+    public static Message gamesList(String gameIds) {
+        return new Message(MessageType.GAMES_LIST, -1, -1, gameIds, null);
+    }
+
+    // 상위 count명과 name의 순위를 묻는다. name은 비워도 된다.
+    public static Message leaderboardRequest(int count, String name) {
+        return new Message(MessageType.LEADERBOARD_REQUEST, count, -1, name, null);
+    }
+
+    // entries는 "이름,레이팅;이름,레이팅..." rank가 0이면 요청한 이름에 레이팅이 없다.
+    public static Message leaderboard(int rank, int rating, String entries) {
+        return new Message(MessageType.LEADERBOARD, rank, rating, entries, null);
+    }
+
+    // 두 플레이어의 남은 시간. activeSeat는 시계가 가고 있는 자리 (0 = 흑, 1 = 백, -1이면 멈춤)
+    public static Message clock(int blackMillis, int whiteMillis, int activeSeat) {
+        return new Message(MessageType.CLOCK, blackMillis, whiteMillis, null, null, activeSeat, null);
+    }
+
+    // 무를 수의 개수. 개수 없이 온 무르기 메시지는 1수로 본다.
+    public int undoDepth() {
+        return row > 0 ? row : 1;
+    }
+
+    public int changeCount() {
+        return changes.length / 3;
+    }
+
+    public char cellAt(int row, int col) {
+        return cells[row * BOARD_SIZE + col];
+    }
+
+    @Override
+    public String toString() {
+        return FrameCodec.toText(this);
+    }
+}
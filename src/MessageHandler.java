@@ -0,0 +1,19 @@
+import java.io.IOException;
+
+// MessageRouter가 프레임 종류별로 나눠서 호출하는 핸들러
+public interface MessageHandler {
+    void onMove(Connection from, int row, int col) throws IOException;
+
+    // depth: 무를 수의 개수
+    void onUndoRequest(Connection from, int depth) throws IOException;
+
+    // depth: 수락할 때 확인한 개수 (거절이면 의미 없음)
+    void onUndoResponse(Connection from, boolean accepted, int depth) throws IOException;
+
+    void onSnapshotRequest(Connection from) throws IOException;
+
+    void onChat(Connection from, String message) throws IOException;
+
+    // 클라이언트가 보낼 수 없는 종류이거나 형식이 맞지 않는 메시지
+    void onInvalid(Connection from, Message message) throws IOException;
+}
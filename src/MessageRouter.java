@@ -0,0 +1,22 @@
+import java.io.IOException;
+
+// 클라이언트가 보낸 메시지를 종류별 핸들러로 나눈다.
+public final class MessageRouter {
+    private MessageRouter() {
+    }
+
+    public static void route(Connection from, Message message, MessageHandler handler) throws IOException {
+        switch (message.type) {
+            case HELLO, LOGIN -> {
+                // 연결과 로비가 이미 처리했다.
+            }
+            case MOVE -> handler.onMove(from, message.row, message.col);
+            case CHAT -> handler.onChat(from, message.text);
+            case SNAPSHOT_REQUEST -> handler.onSnapshotRequest(from);
+            case UNDO_REQUEST -> handler.onUndoRequest(from, message.undoDepth());
+            case UNDO_ACCEPTED -> handler.onUndoResponse(from, true, message.undoDepth());
+            case UNDO_REJECTED -> handler.onUndoResponse(from, false, 0);
+            default -> handler.onInvalid(from, message);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+import java.util.HashMap;
+import java.util.Map;
+
+// 서버와 클라이언트가 주고받는 메시지 종류.
+// opcode는 바이너리 프로토콜의 첫 바이트, text는 기존 텍스트 프로토콜에서 쓰던 고정 문자열이다.
+public enum MessageType {
+    // 연결 설정
+    HELLO(0x01, null),          // 클라이언트 → 서버: "PROTOCOL:<버전>"
+    HELLO_ACK(0x02, null),      // 서버 → 클라이언트: "PROTOCOL_OK:<버전>"
+    ROLE(0x03, null),           // "Player 1 (X)." / "Player 2 (O)."
+    SESSION(0x04, null),        // 서버 → 클라이언트: "SESSION:<토큰>". 다시 접속할 때 쓰는 자리 토큰
+    RESUME(0x05, null),         // 클라이언트 → 서버: "RESUME:<토큰>[:<보드 순번>]". 첫 프레임으로 보내 자리로 돌아간다
+    LOGIN(0x06, null),          // 클라이언트 → 서버: "LOGIN:<이름>". HELLO 다음에 보내 새 플레이어로 들어간다
+    WATCH(0x07, null),          // 클라이언트 → 서버: "WATCH:<방 번호>". HELLO 다음에 보내 관전자로 들어간다
+
+    // 대국 진행
+    MOVE(0x10, null),           // "row,col" / [row][col]
+    BOARD(0x11, null),          // "Current board:\n..." / 칸당 2비트로 묶은 보드
+    YOUR_TURN(0x12, "Your turn."),
+    INVALID_MOVE(0x13, "Invalid move. Try again."),
+    FORBIDDEN_MOVE(0x14, "Forbidden move! Try again."),
+    BOARD_DELTA(0x15, null),    // 바뀐 칸만 담은 보드 갱신 (바이너리 연결에만 보낸다)
+    SNAPSHOT_REQUEST(0x16, "SNAPSHOT_REQUEST"), // 클라이언트 → 서버: 순번이 어긋나 전체 보드를 다시 요청
+    CLOCK(0x17, null),          // 서버 → 클라이언트: "CLOCK:<흑 남은 ms>:<백 남은 ms>:<차례 자리>" (바이너리 연결에만 보낸다)
+
+    // 무르기. 요청/응답 요구/수락에는 무를 수의 개수가 붙는다. "UNDO_REQUEST:2" / [0x20][2]
+    // 개수가 없으면 1수다.
+    UNDO_REQUEST(0x20, "UNDO_REQUEST"),
+    UNDO_RESPONSE_REQUIRED(0x21, "UNDO_RESPONSE_REQUIRED"),
+    UNDO_ACCEPTED(0x22, "UNDO_ACCEPTED"),
+    UNDO_REJECTED(0x23, "UNDO_REJECTED"),
+    UNDO_SUCCESSFUL(0x24, "UNDO_SUCCESSFUL"),
+
+    // 결과
+    WIN(0x30, "You win!"),
+    LOSE(0x31, "You lose!"),
+    DRAW(0x32, "Draw!"),
+
+    // 문자열 메시지
+    CHAT(0x40, null),           // "CHAT:<보낸 사람>: <내용>"
+    NOTICE(0x41, null),         // 그 밖의 안내 문구
+
+    // 보관된 대국 다시 보기. 로비에서 첫 프레임이 REPLAY_*인 연결은 ReplayService가 맡는다.
+    REPLAY_REQUEST(0x50, null), // 클라이언트 → 서버: "REPLAY:<대국>:<from>:<to>". [from, to) 구간의 수, to가 -1이면 끝까지
+    REPLAY_SEEK(0x51, null),    // 클라이언트 → 서버: "REPLAY_SEEK:<대국>:<ply>". ply수까지 둔 보드
+    REPLAY_INFO(0x52, null),    // 서버 → 클라이언트: "REPLAY_INFO:<대국>:<수>:<결과>:<규칙>:<흑>:<백>"
+    REPLAY_MOVES(0x53, null),   // 서버 → 클라이언트: "REPLAY_MOVES:<대국>:<첫 수 번호>:row,col,돌;..."
+    ARCHIVED(0x54, null),       // 서버 → 클라이언트: "ARCHIVED:<대국>". 끝난 대국이 보관된 번호
+    GAMES_REQUEST(0x55, null),  // 클라이언트 → 서버: "GAMES:<개수>:<이름>". 그 플레이어의 최근 대국 번호
+    GAMES_LIST(0x56, null),     // 서버 → 클라이언트: "GAMES_LIST:<대국>,<대국>,..." 최근 것부터
+
+    // 순위표. 로비에서 첫 프레임이 LEADERBOARD_REQUEST인 연결도 ReplayService가 맡는다.
+    LEADERBOARD_REQUEST(0x60, null), // 클라이언트 → 서버: "TOP:<인원>:<이름>". 상위 인원과 그 이름의 순위 (이름은 비워도 된다)
+    LEADERBOARD(0x61, null);    // 서버 → 클라이언트: "LEADERBOARD:<순위>:<레이팅>:이름,레이팅;..." 순위가 0이면 레이팅 없음
+
+    private static final MessageType[] BY_OPCODE = new MessageType[256];
+    private static final Map<String, MessageType> BY_TEXT = new HashMap<>();
+
+    static {
+        for (MessageType type : values()) {
+            BY_OPCODE[type.opcode] = type;
+            if (type.text != null) BY_TEXT.put(type.text, type);
+        }
+    }
+
+    final int opcode;
+    final String text;
+
+    MessageType(int opcode, String text) {
+        this.opcode = opcode;
+        this.text = text;
+    }
+
+    // 무를 수의 개수를 함께 싣는 종류인지
+    boolean carriesDepth() {
+        return this == UNDO_REQUEST || this == UNDO_RESPONSE_REQUIRED || this == UNDO_ACCEPTED;
+    }
+
+    static MessageType fromOpcode(int opcode) {
+        return BY_OPCODE[opcode & 0xFF];
+    }
+
+    static MessageType fromText(String text) {
+        return BY_TEXT.get(text);
+    }
+}
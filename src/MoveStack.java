@@ -0,0 +1,48 @@
+import java.util.Arrays;
+
+// 한 방에서 둔 수를 순서대로 쌓아 두는 스택. 수 하나는 int 하나로 저장한다.
+// (칸 번호 << 1) | 돌 색(0 = X, 1 = O). 착수마다 객체를 만들지 않고 무르기는 위에서부터 꺼낸다.
+public class MoveStack {
+    private static final int BOARD_SIZE = 19;
+
+    private int[] moves = new int[64];
+    private int size = 0;
+
+    public void push(int row, int col, char stone) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = ((row * BOARD_SIZE + col) << 1) | (stone == Board.WHITE ? 1 : 0);
+    }
+
+    // 가장 최근 수를 꺼낸다. 비어 있으면 -1
+    public int pop() {
+        return size == 0 ? -1 : moves[--size];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // index번째(0부터) 수
+    public int get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+        return moves[index];
+    }
+
+    public static int rowOf(int move) {
+        return (move >> 1) / BOARD_SIZE;
+    }
+
+    public static int colOf(int move) {
+        return (move >> 1) % BOARD_SIZE;
+    }
+
+    public static char stoneOf(int move) {
+        return (move & 1) == 0 ? Board.BLACK : Board.WHITE;
+    }
+}
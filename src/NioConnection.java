@@ -0,0 +1,227 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Selector 이벤트 루프가 읽고 쓰는 논블로킹 연결.
+// 읽기/쓰기 버퍼를 연결마다 따로 두고, 2바이트 길이 접두 프레임을 FrameCodec으로 풀고 만든다.
+public class NioConnection implements Connection {
+    private static final int MAX_FRAME = 2 + 65535;
+
+    private final SocketChannel channel;
+    private final NioEventLoop loop;
+    private final String remoteAddress;
+    private final FrameCodec codec = new FrameCodec();
+    private final List<Message> pendingFrames = new ArrayList<>(); // 리스너가 붙기 전에 받은 프레임
+    private final Queue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger outboundCount = new AtomicInteger(); // ConcurrentLinkedQueue.size()는 O(n)이라 따로 센다
+    private ByteBuffer readBuffer = ByteBuffer.allocate(1024);
+    private SelectionKey key;
+    private volatile boolean closed = false;
+    private volatile boolean closeAfterFlush = false;
+    private FrameListener listener;
+    private boolean closeNotified = false;
+    private volatile String playerName = GUEST;
+
+    NioConnection(SocketChannel channel, NioEventLoop loop) throws IOException {
+        this.channel = channel;
+        this.loop = loop;
+        this.remoteAddress = String.valueOf(channel.getRemoteAddress());
+    }
+
+    // 읽기는 이벤트 루프가 맡으므로 리스너만 연결한다. 그 전에 받은 프레임은 순서대로 넘겨준다.
+    @Override
+    public void startReading(FrameListener listener) {
+        List<Message> backlog;
+        boolean notifyClose;
+        synchronized (this) {
+            this.listener = listener;
+            backlog = new ArrayList<>(pendingFrames);
+            pendingFrames.clear();
+            notifyClose = closed && !closeNotified;
+            if (notifyClose) closeNotified = true;
+        }
+        for (Message message : backlog) listener.onFrame(this, message);
+        if (notifyClose) listener.onClose(this);
+    }
+
+    // 인코딩과 큐 추가를 한 번에 해야 프로토콜 전환 시점과 프레임 순서가 어긋나지 않는다.
+    @Override
+    public void send(Message message) throws IOException {
+        if (closed) throw new IOException("Connection closed");
+        synchronized (outbound) {
+            outbound.add(ByteBuffer.wrap(codec.encode(message)));
+            outboundCount.incrementAndGet();
+        }
+        loop.requestWrite(this);
+    }
+
+    // 같은 배열을 여러 연결이 감싸 쓰지만 위치는 ByteBuffer마다 따로라 서로 영향이 없다.
+    @Override
+    public void sendFrame(byte[] frame) throws IOException {
+        if (closed) throw new IOException("Connection closed");
+        synchronized (outbound) {
+            outbound.add(ByteBuffer.wrap(frame));
+            outboundCount.incrementAndGet();
+        }
+        loop.requestWrite(this);
+    }
+
+    @Override
+    public int pendingFrames() {
+        return outboundCount.get();
+    }
+
+    // 아직 보내지 못한 프레임(게임 결과 등)이 있으면 다 보낸 뒤에 소켓을 닫는다.
+    @Override
+    public void close() {
+        FrameListener current;
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            current = listener;
+            if (current != null) closeNotified = true;
+        }
+        if (hasPendingWrites() && channel.isOpen()) {
+            closeAfterFlush = true;
+            loop.requestWrite(this);
+        } else {
+            closeChannel();
+        }
+        if (current != null) current.onClose(this);
+    }
+
+    void closeChannel() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.out.println("Error closing connection: " + e.getMessage());
+        }
+    }
+
+    boolean isCloseAfterFlush() {
+        return closeAfterFlush;
+    }
+
+    @Override
+    public boolean isBinary() {
+        return codec.isBinaryOutbound();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public String getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    SocketChannel channel() {
+        return channel;
+    }
+
+    void attach(SelectionKey key) {
+        this.key = key;
+    }
+
+    SelectionKey key() {
+        return key;
+    }
+
+    boolean hasPendingWrites() {
+        return !outbound.isEmpty();
+    }
+
+    // 이벤트 루프 스레드에서만 호출된다.
+    void onReadable() {
+        try {
+            int read = channel.read(readBuffer);
+            if (read < 0) {
+                discardOutbound();
+                close();
+                return;
+            }
+            readBuffer.flip();
+            while (readBuffer.remaining() >= 2) {
+                int length = ((readBuffer.get(readBuffer.position()) & 0xFF) << 8)
+                        | (readBuffer.get(readBuffer.position() + 1) & 0xFF);
+                if (readBuffer.remaining() < 2 + length) break;
+
+                byte[] frame = new byte[2 + length];
+                readBuffer.get(frame);
+                deliver(codec.decode(frame));
+            }
+            readBuffer.compact();
+
+            // 프레임 하나가 버퍼보다 크면 버퍼를 늘린다.
+            if (!readBuffer.hasRemaining() && readBuffer.capacity() < MAX_FRAME) {
+                ByteBuffer bigger = ByteBuffer.allocate(Math.min(readBuffer.capacity() * 2, MAX_FRAME));
+                readBuffer.flip();
+                bigger.put(readBuffer);
+                readBuffer = bigger;
+            }
+        } catch (IOException e) {
+            discardOutbound();
+            close();
+        }
+    }
+
+    private void discardOutbound() {
+        synchronized (outbound) {
+            outbound.clear();
+            outboundCount.set(0);
+        }
+    }
+
+    private void deliver(Message message) throws IOException {
+        if (message.type == MessageType.HELLO) {
+            // 버전 협상은 방에 들어가기 전이라도 연결에서 바로 응답하고, 리스너에는 새 클라이언트라는 표시로만 넘긴다.
+            send(Message.helloAck(Math.min(message.row, FrameCodec.BINARY_VERSION)));
+        }
+
+        FrameListener current;
+        synchronized (this) {
+            current = listener;
+            if (current == null) {
+                pendingFrames.add(message);
+                return;
+            }
+        }
+        current.onFrame(this, message);
+    }
+
+    // 이벤트 루프 스레드에서만 호출된다. 보낼 데이터를 다 보냈으면 true를 돌려준다.
+    boolean onWritable() {
+        try {
+            ByteBuffer buffer;
+            while ((buffer = outbound.peek()) != null) {
+                channel.write(buffer);
+                if (buffer.hasRemaining()) return false; // 소켓 버퍼가 가득 참
+                outbound.poll();
+                outboundCount.decrementAndGet();
+            }
+            return true;
+        } catch (IOException e) {
+            discardOutbound();
+            close();
+            return true;
+        }
+    }
+
+    @Override
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    @Override
+    public void setPlayerName(String name) {
+        playerName = name;
+    }
+}
@@ -0,0 +1,126 @@
+import java.io.IOException;
+import java.nio.channels.*;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Selector 하나로 여러 연결의 읽기/쓰기를 처리하는 이벤트 루프 스레드
+public class NioEventLoop implements Runnable {
+    private final Selector selector;
+    private final Queue<NioConnection> pendingRegistrations = new ConcurrentLinkedQueue<>();
+    private final Queue<NioConnection> pendingWrites = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+
+    public NioEventLoop() throws IOException {
+        this.selector = Selector.open();
+    }
+
+    // 다른 스레드(accept 스레드)에서 호출된다. 실제 등록은 루프 스레드에서 처리한다.
+    public NioConnection register(SocketChannel channel) throws IOException {
+        channel.configureBlocking(false);
+        NioConnection connection = new NioConnection(channel, this);
+        pendingRegistrations.add(connection);
+        selector.wakeup();
+        return connection;
+    }
+
+    void requestWrite(NioConnection connection) {
+        pendingWrites.add(connection);
+        selector.wakeup();
+    }
+
+    public void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                selector.select();
+                processRegistrations();
+                processWriteRequests();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    NioConnection connection = (NioConnection) key.attachment();
+                    if (!key.isValid()) continue;
+
+                    // 방과 로비의 처리도 이 스레드에서 돌므로, 한 연결에서 난 예외로 루프 전체가 멈추지 않게 그 연결만 닫는다.
+                    try {
+                        if (key.isReadable()) {
+                            connection.onReadable();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            flush(connection);
+                        }
+                    } catch (RuntimeException e) {
+                        System.out.println("Error handling " + connection.getRemoteAddress() + ": " + e);
+                        closeQuietly(connection);
+                    }
+                }
+            } catch (IOException e) {
+                System.out.println("Error in event loop: " + e.getMessage());
+            }
+        }
+
+        try {
+            selector.close();
+        } catch (IOException e) {
+            System.out.println("Error closing selector: " + e.getMessage());
+        }
+    }
+
+    private void closeQuietly(NioConnection connection) {
+        try {
+            connection.close();
+        } catch (RuntimeException e) {
+            System.out.println("Error closing " + connection.getRemoteAddress() + ": " + e);
+            connection.closeChannel();
+        }
+    }
+
+    private void processRegistrations() {
+        NioConnection connection;
+        while ((connection = pendingRegistrations.poll()) != null) {
+            try {
+                SelectionKey key = connection.channel().register(selector, SelectionKey.OP_READ, connection);
+                connection.attach(key);
+                // 등록 전에 쌓인 쓰기가 있으면 바로 보낸다.
+                if (connection.hasPendingWrites()) flush(connection);
+            } catch (ClosedChannelException e) {
+                connection.close();
+            }
+        }
+    }
+
+    private void processWriteRequests() {
+        NioConnection connection;
+        while ((connection = pendingWrites.poll()) != null) {
+            if (connection.key() != null && connection.key().isValid()) {
+                flush(connection);
+            } else if (connection.isCloseAfterFlush()) {
+                connection.closeChannel();
+            }
+        }
+    }
+
+    private void flush(NioConnection connection) {
+        SelectionKey key = connection.key();
+        boolean done = connection.onWritable();
+        if (!key.isValid()) return;
+
+        if (done && !connection.hasPendingWrites()) {
+            if (connection.isCloseAfterFlush()) {
+                connection.closeChannel();
+                return;
+            }
+            key.interestOps(SelectionKey.OP_READ);
+        } else {
+            key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+    }
+}
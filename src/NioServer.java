@@ -0,0 +1,51 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.function.Consumer;
+
+// 고정된 개수의 이벤트 루프 스레드로 모든 연결을 처리하는 NIO 서버
+public class NioServer {
+    private final int port;
+    private final NioEventLoop[] loops;
+    private final Consumer<Connection> onConnect;
+    private int nextLoop = 0;
+
+    public NioServer(int port, int loopCount, Consumer<Connection> onConnect) throws IOException {
+        this.port = port;
+        this.onConnect = onConnect;
+        this.loops = new NioEventLoop[loopCount];
+        for (int i = 0; i < loopCount; i++) {
+            loops[i] = new NioEventLoop();
+        }
+    }
+
+    // 이벤트 루프를 띄우고 현재 스레드에서 연결을 받는다. 돌아오지 않는다.
+    public void start() throws IOException {
+        for (int i = 0; i < loops.length; i++) {
+            Thread thread = new Thread(loops[i], "nio-loop-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        try (ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            serverChannel.bind(new InetSocketAddress(port), 1024);
+            System.out.println("NIO transport started with " + loops.length + " event loop(s).");
+
+            while (true) {
+                SocketChannel channel = serverChannel.accept();
+                try {
+                    channel.socket().setTcpNoDelay(true);
+                    NioEventLoop loop = loops[nextLoop];
+                    nextLoop = (nextLoop + 1) % loops.length; // 라운드 로빈으로 분배
+                    onConnect.accept(loop.register(channel));
+                } catch (IOException e) {
+                    System.out.println("Error accepting player: " + e.getMessage());
+                    channel.close();
+                }
+            }
+        } finally {
+            for (NioEventLoop loop : loops) loop.shutdown();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// 봇의 한 수를 여러 코어로 나눠 읽는다 (Lazy SMP).
+// 주 탐색은 부른 스레드에서 돌고, helpers개의 도우미가 ForkJoinPool에서 같은 국면을 깊이를 엇갈려 함께 읽는다.
+// 모두 잠금 없는 TranspositionTable 하나를 함께 써서 도우미가 먼저 채운 결과를 주 탐색이 가져다 쓴다.
+// 주 탐색이 끝나면 stop으로 도우미를 멈추고 주 탐색의 수를 둔다. 아직 시작하지 못한 도우미는 취소한다.
+// 모든 봇이 표 하나를 함께 쓰므로 봇 수가 늘어도 메모리는 그대로다. 탐색기는 스레드마다 하나씩 두고 다시 쓴다.
+public class ParallelSearch {
+    private static final int TABLE_BITS = 20; // 2^20칸, 16MB
+
+    private final TranspositionTable table = new TranspositionTable(TABLE_BITS);
+    private final ThreadLocal<BotSearch> searches = ThreadLocal.withInitial(() -> new BotSearch(table));
+    private final int helpers;
+    private final ForkJoinPool pool; // helpers가 0이면 null
+
+    // threads: 한 수를 읽는 스레드 수. 1이면 부른 스레드 혼자 읽는다.
+    public ParallelSearch(int threads) {
+        helpers = Math.max(0, threads - 1);
+        pool = helpers == 0 ? null : new ForkJoinPool(helpers, ParallelSearch::newHelperThread, null, false);
+    }
+
+    private static ForkJoinWorkerThread newHelperThread(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("bot-helper-" + thread.getPoolIndex());
+        return thread;
+    }
+
+    // position은 탐색이 끝날 때까지 바꾸지 않아야 한다. 도우미들이 각자 복사해 간다.
+    public int bestMove(Board position, char stone, RuleSet rules, long timeMillis, long maxNodes) {
+        BotSearch main = searches.get();
+        if (helpers == 0) return main.bestMove(position, stone, rules, timeMillis, maxNodes);
+
+        long deadline = System.nanoTime() + timeMillis * 1_000_000;
+        AtomicBoolean stop = new AtomicBoolean();
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[helpers];
+        for (int i = 0; i < helpers; i++) {
+            int helper = i + 1;
+            tasks[i] = pool.submit(() -> searches.get().help(position, stone, rules, deadline, stop, helper));
+        }
+        try {
+            return main.bestMove(position, stone, rules, timeMillis, maxNodes);
+        } finally {
+            stop.set(true);
+            for (ForkJoinTask<?> task : tasks) task.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+// 한 줄 패턴 표. Board.lineWindow()가 돌려주는 10칸 창(가운데 돌 양옆 5칸씩)마다
+// 가운데에 흑돌을 둔 결과를 미리 계산해 둔다. 착수 하나를 판정할 때는 방향마다 표를 한 번씩 찾는다.
+// 렌주 규칙의 흑 기준이다. 오목은 정확히 5개만 인정하고 6개 이상은 장목이다.
+//   사(4): 빈 칸 하나를 채우면 가운데 돌을 포함한 정확한 오목이 되는 모양. X.XXX 같은 끊긴 사도 포함한다.
+//          X.XXX.X 처럼 한 줄에 서로 다른 사가 둘 있으면 2로 센다.
+//   열린 사: 오목이 되는 빈 칸이 둘인 사. .XXXX.
+//   삼(3): 빈 칸 하나를 채우면 가운데 돌을 포함한 열린 사가 되는 모양. .XXX., .X.XX. 등.
+//          채우는 칸 자체가 금수인지는 따지지 않는다.
+public final class PatternTable {
+    public static final int WINDOW = 5;  // 가운데 양쪽으로 보는 칸 수
+    public static final int SIZE = 59049; // 3^10
+
+    // 표 값의 비트
+    private static final int FIVE = 1;
+    private static final int OVERLINE = 2;
+    private static final int OPEN_FOUR = 4;
+    private static final int THREE = 8;
+    private static final int FOUR_SHIFT = 4; // 사 개수(0~2)
+    private static final int OPEN_FOUR_FLAG = 1 << 8; // fours()의 반환값에만 쓴다
+
+    private static final int CELLS = WINDOW * 2 + 1;
+    private static final int CENTER = WINDOW;
+    private static final int EMPTY = 0, OWN = 1, BLOCKED = 2;
+
+    private static final byte[] TABLE = new byte[SIZE];
+
+    static {
+        int[] cells = new int[CELLS];
+        for (int index = 0; index < SIZE; index++) {
+            decode(index, cells);
+            TABLE[index] = (byte) evaluate(cells);
+        }
+    }
+
+    private PatternTable() {
+    }
+
+    public static boolean isFive(int window) {
+        return (TABLE[window] & FIVE) != 0;
+    }
+
+    public static boolean isOverline(int window) {
+        return (TABLE[window] & OVERLINE) != 0;
+    }
+
+    public static int fourCount(int window) {
+        return TABLE[window] >> FOUR_SHIFT;
+    }
+
+    public static boolean isOpenFour(int window) {
+        return (TABLE[window] & OPEN_FOUR) != 0;
+    }
+
+    public static boolean isThree(int window) {
+        return (TABLE[window] & THREE) != 0;
+    }
+
+    // 색인을 칸 배열로 푼다. 앞쪽 다섯 자리는 CENTER - 1부터 바깥으로, 뒤쪽 다섯 자리는 CENTER + 1부터 바깥으로.
+    private static void decode(int index, int[] cells) {
+        cells[CENTER] = OWN;
+        for (int i = 1; i <= WINDOW; i++) {
+            cells[CENTER - i] = index % 3;
+            index /= 3;
+        }
+        for (int i = 1; i <= WINDOW; i++) {
+            cells[CENTER + i] = index % 3;
+            index /= 3;
+        }
+    }
+
+    private static int evaluate(int[] cells) {
+        int run = runLength(cells);
+        if (run >= 6) return OVERLINE;
+        if (run == 5) return FIVE;
+
+        int fours = fours(cells);
+        int value = Math.min(fours & 3, 2) << FOUR_SHIFT;
+        if ((fours & OPEN_FOUR_FLAG) != 0) return value | OPEN_FOUR;
+        if (fours != 0) return value;
+
+        // 사가 없을 때만 삼을 본다. 빈 칸 하나를 채워 열린 사가 되면 삼이다.
+        for (int i = 0; i < CELLS; i++) {
+            if (cells[i] != EMPTY) continue;
+            cells[i] = OWN;
+            boolean openFour = runLength(cells) < 5 && (fours(cells) & OPEN_FOUR_FLAG) != 0;
+            cells[i] = EMPTY;
+            if (openFour) return value | THREE;
+        }
+        return value;
+    }
+
+    // 가운데 돌을 포함한 사의 개수(하위 비트)와 열린 사 여부(OPEN_FOUR_FLAG).
+    // 오목이 되는 빈 칸마다 그 오목에서 빈 칸을 뺀 돌 네 개를 비트로 모아서, 같은 돌 네 개로
+    // 오목을 만드는 빈 칸이 둘이면 열린 사 하나로, 돌 네 개가 다르면 다른 사로 센다.
+    private static int fours(int[] cells) {
+        int firstStones = 0, secondStones = 0;
+        int count = 0;
+        boolean open = false;
+        for (int i = 0; i < CELLS; i++) {
+            if (cells[i] != EMPTY) continue;
+            cells[i] = OWN;
+            int start = runStart(cells);
+            int stones = runLength(cells) == 5 ? (0x1F << start) & ~(1 << i) : 0;
+            cells[i] = EMPTY;
+            if (stones == 0) continue;
+
+            if (count > 0 && (stones == firstStones || stones == secondStones)) {
+                open = true;
+            } else if (count == 0) {
+                firstStones = stones;
+                count = 1;
+            } else if (count == 1) {
+                secondStones = stones;
+                count = 2;
+            }
+        }
+        return count | (open ? OPEN_FOUR_FLAG : 0);
+    }
+
+    // 가운데 돌을 지나는 연속 개수
+    private static int runLength(int[] cells) {
+        int end = CENTER;
+        while (end + 1 < CELLS && cells[end + 1] == OWN) end++;
+        return end - runStart(cells) + 1;
+    }
+
+    private static int runStart(int[] cells) {
+        int start = CENTER;
+        while (start > 0 && cells[start - 1] == OWN) start--;
+        return start;
+    }
+}
@@ -0,0 +1,270 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// 플레이어 레이팅 (Elo). 대국이 승패나 무승부로 끝나면 GameRoom이 결과를 넘긴다. guest와 봇 대국은 레이팅을 매기지 않는다.
+// 레이팅은 메모리의 맵에서 바로 읽고, 바뀐 플레이어만 모아 두었다가 flushMillis마다 파일에 한 번에 덧붙인다.
+// 순위표는 (레이팅 내림차순, 이름) 순서의 TreeSet으로 상위 N명을, 레이팅별 인원을 담은 펜윅 트리로
+// 한 플레이어의 순위를 구하므로 조회할 때 디스크를 읽지 않는다.
+// 파일 레코드는 [길이 4바이트][이름 길이][이름][레이팅 2바이트][대국 수][승][무][패] (각 4바이트)이고
+// 같은 이름은 나중 레코드가 이긴다. 열 때 플레이어마다 하나씩만 남기도록 파일을 새로 쓴다.
+public class RatingService implements Closeable {
+    public static final int INITIAL_RATING = 1500;
+    private static final int MAX_RATING = 4000;       // 펜윅 트리 범위. 레이팅은 [0, MAX_RATING]로 자른다
+    private static final int PROVISIONAL_GAMES = 30;  // 이 판수까지는 K를 크게 해 빨리 제자리를 찾게 한다
+    private static final int PROVISIONAL_K = 40;
+    private static final int K = 20;
+    private static final int MAX_RECORD = 1024;
+
+    // 플레이어 한 명의 레이팅. 바뀔 때마다 새 객체로 바꿔 넣으므로 잠금 없이 읽어도 된다.
+    public static final class PlayerRating {
+        public final String name;
+        public final int rating;
+        public final int games;
+        public final int wins;
+        public final int draws;
+        public final int losses;
+
+        PlayerRating(String name, int rating, int games, int wins, int draws, int losses) {
+            this.name = name;
+            this.rating = rating;
+            this.games = games;
+            this.wins = wins;
+            this.draws = draws;
+            this.losses = losses;
+        }
+
+        // score: 1 = 승, 0.5 = 무, 0 = 패
+        PlayerRating after(int newRating, double score) {
+            return new PlayerRating(name, newRating, games + 1, wins + (score == 1 ? 1 : 0),
+                    draws + (score == 0.5 ? 1 : 0), losses + (score == 0 ? 1 : 0));
+        }
+    }
+
+    private static final Comparator<PlayerRating> RANKING =
+            Comparator.comparingInt((PlayerRating player) -> -player.rating).thenComparing(player -> player.name);
+
+    private final Map<String, PlayerRating> players = new ConcurrentHashMap<>();
+    // 아래는 모두 lock으로 보호한다.
+    private final ReentrantLock lock = new ReentrantLock();
+    private final TreeSet<PlayerRating> ranking = new TreeSet<>(RANKING);
+    private final int[] countTree = new int[MAX_RATING + 2]; // 펜윅 트리. 레이팅 r의 인원이 r + 1번 칸에 더해진다
+    private Set<String> dirty = new LinkedHashSet<>();       // 아직 파일에 쓰지 않은 플레이어
+    private final FileChannel channel;                        // null이면 메모리에만 둔다
+
+    private RatingService(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    // 파일에 쓰지 않는 레이팅. 서버가 내려가면 사라진다.
+    public static RatingService inMemory() {
+        return new RatingService(null);
+    }
+
+    // 파일을 읽어 레이팅을 불러오고, 플레이어마다 마지막 레코드 하나만 남도록 새로 쓴 뒤
+    // flushMillis마다 바뀐 레이팅을 덧붙인다.
+    public static RatingService open(Path path, long flushMillis, ScheduledExecutorService scheduler) throws IOException {
+        Map<String, PlayerRating> loaded = new LinkedHashMap<>();
+        if (Files.exists(path)) load(path, loaded);
+        compact(path, loaded.values());
+        RatingService service = new RatingService(FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+        for (PlayerRating player : loaded.values()) service.index(null, player);
+        System.out.println("[Ratings] Loaded " + loaded.size() + " player(s).");
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                service.flush();
+            } catch (IOException e) {
+                System.out.println("[Ratings] Flush failed: " + e.getMessage());
+            }
+        }, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+        return service;
+    }
+
+    // 매칭에 쓰는 레이팅. 처음 보는 플레이어와 guest는 INITIAL_RATING이다.
+    public int rating(String name) {
+        PlayerRating player = players.get(name);
+        return player != null ? player.rating : INITIAL_RATING;
+    }
+
+    public PlayerRating get(String name) {
+        return players.get(name);
+    }
+
+    // 끝난 대국의 결과를 반영한다. result는 GameJournal.RESULT_*
+    public void recordResult(String black, String white, byte result) {
+        if (result == GameJournal.RESULT_ABANDONED || black.equals(white)
+                || black.equals(Connection.GUEST) || white.equals(Connection.GUEST)
+                || black.equals(BotPlayer.NAME) || white.equals(BotPlayer.NAME)) {
+            return;
+        }
+        double blackScore = result == GameJournal.RESULT_BLACK_WIN ? 1 : result == GameJournal.RESULT_DRAW ? 0.5 : 0;
+        PlayerRating oldBlack;
+        PlayerRating oldWhite;
+        PlayerRating newBlack;
+        PlayerRating newWhite;
+        lock.lock();
+        try {
+            oldBlack = players.getOrDefault(black, new PlayerRating(black, INITIAL_RATING, 0, 0, 0, 0));
+            oldWhite = players.getOrDefault(white, new PlayerRating(white, INITIAL_RATING, 0, 0, 0, 0));
+            double expected = 1 / (1 + Math.pow(10, (oldWhite.rating - oldBlack.rating) / 400.0));
+            newBlack = oldBlack.after(adjusted(oldBlack, blackScore - expected), blackScore);
+            newWhite = oldWhite.after(adjusted(oldWhite, expected - blackScore), 1 - blackScore);
+            index(players.get(black), newBlack);
+            index(players.get(white), newWhite);
+            dirty.add(black);
+            dirty.add(white);
+        } finally {
+            lock.unlock();
+        }
+        System.out.println("[Ratings] " + black + " " + oldBlack.rating + " -> " + newBlack.rating + ", "
+                + white + " " + oldWhite.rating + " -> " + newWhite.rating);
+    }
+
+    private static int adjusted(PlayerRating player, double delta) {
+        int k = player.games < PROVISIONAL_GAMES ? PROVISIONAL_K : K;
+        return Math.max(0, Math.min(MAX_RATING, (int) Math.round(player.rating + k * delta)));
+    }
+
+    // 잠금 안에서 호출한다. 이전 값(없으면 null)을 색인에서 빼고 새 값을 넣는다.
+    private void index(PlayerRating previous, PlayerRating current) {
+        if (previous != null) {
+            ranking.remove(previous);
+            addCount(previous.rating, -1);
+        }
+        ranking.add(current);
+        addCount(current.rating, 1);
+        players.put(current.name, current);
+    }
+
+    private void addCount(int rating, int delta) {
+        for (int i = rating + 1; i < countTree.length; i += i & -i) countTree[i] += delta;
+    }
+
+    // 레이팅이 rating 이하인 인원
+    private int countAtMost(int rating) {
+        int count = 0;
+        for (int i = rating + 1; i > 0; i -= i & -i) count += countTree[i];
+        return count;
+    }
+
+    // 레이팅이 높은 순서로 count명
+    public List<PlayerRating> top(int count) {
+        List<PlayerRating> top = new ArrayList<>(Math.min(count, 100));
+        lock.lock();
+        try {
+            for (PlayerRating player : ranking) {
+                if (top.size() >= count) break;
+                top.add(player);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return top;
+    }
+
+    // 1위부터 센 순위. 레이팅이 같으면 같은 순위다. 레이팅이 없는 플레이어는 0
+    public int rank(String name) {
+        lock.lock();
+        try {
+            PlayerRating player = players.get(name);
+            if (player == null) return 0;
+            return ranking.size() - countAtMost(player.rating) + 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 바뀐 레이팅을 파일에 덧붙이고 fsync한다. 메모리에만 두는 경우 아무 일도 하지 않는다.
+    public void flush() throws IOException {
+        if (channel == null) return;
+        Set<String> batch;
+        lock.lock();
+        try {
+            if (dirty.isEmpty()) return;
+            batch = dirty;
+            dirty = new LinkedHashSet<>();
+        } finally {
+            lock.unlock();
+        }
+        ByteArrayOutputStream records = new ByteArrayOutputStream(batch.size() * 48);
+        for (String name : batch) {
+            ByteBuffer record = record(players.get(name));
+            records.write(record.array(), 0, record.position());
+        }
+        synchronized (channel) {
+            ByteBuffer buffer = ByteBuffer.wrap(records.toByteArray());
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(false);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel == null) return;
+        flush();
+        channel.close();
+    }
+
+    private static ByteBuffer record(PlayerRating player) {
+        byte[] name = player.name.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(4 + 1 + name.length + 2 + 16);
+        record.putInt(record.capacity() - 4);
+        record.put((byte) name.length).put(name);
+        record.putShort((short) player.rating);
+        record.putInt(player.games).putInt(player.wins).putInt(player.draws).putInt(player.losses);
+        return record;
+    }
+
+    private static void load(Path path, Map<String, PlayerRating> players) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while (true) {
+                byte[] body;
+                try {
+                    int length = in.readInt();
+                    if (length <= 0 || length > MAX_RECORD) break;
+                    body = new byte[length];
+                    in.readFully(body);
+                } catch (EOFException e) {
+                    break; // 쓰다 만 마지막 레코드는 버린다.
+                }
+                ByteBuffer record = ByteBuffer.wrap(body);
+                byte[] name = new byte[record.get() & 0xFF];
+                record.get(name);
+                String playerName = new String(name, StandardCharsets.UTF_8);
+                players.put(playerName, new PlayerRating(playerName, record.getShort() & 0xFFFF,
+                        record.getInt(), record.getInt(), record.getInt(), record.getInt()));
+            }
+        }
+    }
+
+    private static void compact(Path path, Iterable<PlayerRating> players) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        for (PlayerRating player : players) {
+            ByteBuffer record = record(player);
+            records.write(record.array(), 0, record.position());
+        }
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(records.toByteArray());
+            while (buffer.hasRemaining()) out.write(buffer);
+            out.force(false);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
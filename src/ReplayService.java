@@ -0,0 +1,124 @@
+import java.io.IOException;
+import java.util.Arrays;
+
+// 보관된 대국을 요청받은 만큼만 보내 주는 곳. 로비에서 첫 프레임이 REPLAY_*인 연결을 넘겨받아
+// 연결이 끊길 때까지 요청을 처리한다. 대국 전체를 한 번에 보내지 않고 요청한 구간만
+// REPLAY_CHUNK수씩 나눠 보내므로 긴 대국을 앞뒤로 넘겨 봐도 오가는 양이 적다.
+//   REPLAY_REQUEST [from, to)  → REPLAY_INFO, REPLAY_MOVES...
+//   REPLAY_SEEK ply            → REPLAY_INFO, ply수까지 둔 BOARD (순번 = ply)
+//   GAMES_REQUEST 이름         → GAMES_LIST. 보관소의 플레이어별 색인을 따라 최근 대국 번호를 모은다
+// 없는 대국이면 NOTICE로 알린다.
+// 순위표 요청(LEADERBOARD_REQUEST)도 같은 읽기 전용 연결에서 RatingService의 메모리 색인으로 답한다.
+public class ReplayService implements FrameListener {
+    static final int REPLAY_CHUNK = 64; // REPLAY_MOVES 하나에 싣는 최대 수
+    private static final int MAX_LEADERBOARD = 100;
+    private static final int MAX_GAMES = 100;
+
+    private final GameArchive archive;
+    private final RatingService ratings;
+    private final ServerStats stats;
+
+    public ReplayService(GameArchive archive, RatingService ratings, ServerStats stats) {
+        this.archive = archive;
+        this.ratings = ratings;
+        this.stats = stats;
+    }
+
+    // 로비가 연결을 넘길 때 부른다. first는 연결이 보낸 첫 요청
+    public void attach(Connection connection, Message first) {
+        System.out.println("Replay viewer connected: " + connection.getRemoteAddress());
+        connection.startReading(this);
+        onFrame(connection, first);
+    }
+
+    @Override
+    public void onFrame(Connection from, Message message) {
+        try {
+            switch (message.type) {
+                case HELLO -> {
+                    // 연결이 이미 처리했다.
+                }
+                case REPLAY_REQUEST -> sendRange(from, message.seq, message.row, message.col);
+                case REPLAY_SEEK -> sendPosition(from, message.seq, message.row);
+                case GAMES_REQUEST -> sendGames(from, message.row, message.text);
+                case LEADERBOARD_REQUEST -> sendLeaderboard(from, message.row, message.text);
+                default -> from.send(Message.notice("Replay connection accepts replay requests only."));
+            }
+        } catch (IOException e) {
+            System.out.println("Error sending replay: " + e.getMessage());
+            from.close();
+        }
+    }
+
+    private GameArchive.Game find(Connection connection, int gameId) throws IOException {
+        GameArchive.Game game = archive.get(gameId);
+        if (game == null) connection.send(Message.notice("No such game: " + gameId));
+        return game;
+    }
+
+    private static Message info(GameArchive.Game game) {
+        return Message.replayInfo(game.id(), game.moveCount(), game.result(), game.rules().name(),
+                game.playerName(0), game.playerName(1));
+    }
+
+    // to가 음수이거나 수 개수를 넘으면 마지막 수까지 보낸다.
+    private void sendRange(Connection connection, int gameId, int from, int to) throws IOException {
+        GameArchive.Game game = find(connection, gameId);
+        if (game == null) return;
+
+        int moveCount = game.moveCount();
+        int end = to < 0 || to > moveCount ? moveCount : to;
+        int start = Math.min(Math.max(from, 0), end);
+        connection.send(info(game));
+        for (int chunk = start; chunk < end; chunk += REPLAY_CHUNK) {
+            int count = Math.min(REPLAY_CHUNK, end - chunk);
+            byte[] changes = new byte[count * 3];
+            for (int i = 0; i < count; i++) {
+                int move = game.move(chunk + i);
+                changes[i * 3] = (byte) MoveStack.rowOf(move);
+                changes[i * 3 + 1] = (byte) MoveStack.colOf(move);
+                changes[i * 3 + 2] = (byte) MoveStack.stoneOf(move);
+            }
+            connection.send(Message.replayMoves(gameId, chunk, changes));
+        }
+    }
+
+    private void sendPosition(Connection connection, int gameId, int ply) throws IOException {
+        GameArchive.Game game = find(connection, gameId);
+        if (game == null) return;
+
+        int end = Math.min(Math.max(ply, 0), game.moveCount());
+        char[] cells = new char[Board.SIZE * Board.SIZE];
+        Arrays.fill(cells, Board.EMPTY);
+        for (int i = 0; i < end; i++) {
+            int move = game.move(i);
+            cells[MoveStack.rowOf(move) * Board.SIZE + MoveStack.colOf(move)] = MoveStack.stoneOf(move);
+        }
+        connection.send(info(game));
+        connection.send(Message.board(cells, end));
+    }
+
+    private void sendGames(Connection connection, int count, String name) throws IOException {
+        StringBuilder ids = new StringBuilder();
+        for (int gameId : archive.gamesOf(name, Math.max(0, Math.min(count, MAX_GAMES)))) {
+            if (!ids.isEmpty()) ids.append(',');
+            ids.append(gameId);
+        }
+        connection.send(Message.gamesList(ids.toString()));
+    }
+
+    // 상위 count명과 name의 순위. name이 비어 있거나 레이팅이 없으면 순위는 0이다.
+    private void sendLeaderboard(Connection connection, int count, String name) throws IOException {
+        StringBuilder entries = new StringBuilder();
+        for (RatingService.PlayerRating player : ratings.top(Math.min(count, MAX_LEADERBOARD))) {
+            if (!entries.isEmpty()) entries.append(';');
+            entries.append(player.name).append(',').append(player.rating);
+        }
+        connection.send(Message.leaderboard(ratings.rank(name), ratings.rating(name), entries.toString()));
+    }
+
+    @Override
+    public void onClose(Connection from) {
+        stats.connectionClosed();
+    }
+}
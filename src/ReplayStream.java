@@ -0,0 +1,84 @@
+import java.io.*;
+import java.net.Socket;
+
+// 보관된 대국을 다시 보려고 서버에 따로 여는 연결 (클라이언트 쪽).
+// 요청 하나를 보내고 그 응답을 끝까지 읽은 뒤에 돌아오므로 한 번에 한 요청만 처리한다.
+public class ReplayStream implements Closeable {
+    private final Socket socket;
+    private final DataInputStream input;
+    private final DataOutputStream output;
+    private final FrameCodec codec = new FrameCodec();
+    private Message info; // 마지막으로 받은 REPLAY_INFO
+
+    public ReplayStream(String serverAddress, int port) throws IOException {
+        socket = new Socket(serverAddress, port);
+        input = new DataInputStream(socket.getInputStream());
+        output = new DataOutputStream(socket.getOutputStream());
+        send(Message.hello(FrameCodec.BINARY_VERSION));
+    }
+
+    // 마지막 요청에서 받은 대국 정보. row = 수 개수, col = 결과, text = "규칙:흑:백"
+    public synchronized Message getInfo() {
+        return info;
+    }
+
+    // ply수까지 둔 보드. ply가 수 개수보다 크면 마지막 수까지 둔 보드가 온다.
+    public synchronized Message seek(int gameId, int ply) throws IOException {
+        send(Message.replaySeek(gameId, ply));
+        readInfo();
+        return expect(MessageType.BOARD);
+    }
+
+    // [from, to) 구간의 수를 (row, col, 돌) 세 바이트씩 돌려준다. 구간은 대국의 수 개수에 맞춰 잘린다.
+    public synchronized byte[] range(int gameId, int from, int to) throws IOException {
+        send(Message.replayRequest(gameId, from, to));
+        int moveCount = readInfo().row;
+        int end = to < 0 || to > moveCount ? moveCount : to;
+        int start = Math.min(Math.max(from, 0), end);
+
+        byte[] moves = new byte[(end - start) * 3];
+        int received = 0;
+        while (received < moves.length) {
+            Message chunk = expect(MessageType.REPLAY_MOVES);
+            System.arraycopy(chunk.changes, 0, moves, received, chunk.changes.length);
+            received += chunk.changes.length;
+        }
+        return moves;
+    }
+
+    private Message readInfo() throws IOException {
+        info = expect(MessageType.REPLAY_INFO);
+        return info;
+    }
+
+    // 서버가 NOTICE로 답하면 (없는 대국 등) 그 문구로 예외를 던진다.
+    private Message expect(MessageType type) throws IOException {
+        while (true) {
+            Message message = read();
+            if (message.type == type) return message;
+            if (message.type == MessageType.NOTICE) throw new IOException(message.text);
+            if (message.type != MessageType.HELLO_ACK) {
+                throw new IOException("Unexpected replay frame: " + message.type);
+            }
+        }
+    }
+
+    private Message read() throws IOException {
+        int length = input.readUnsignedShort();
+        byte[] frame = new byte[2 + length];
+        frame[0] = (byte) (length >> 8);
+        frame[1] = (byte) length;
+        input.readFully(frame, 2, length);
+        return codec.decode(frame);
+    }
+
+    private void send(Message message) throws IOException {
+        output.write(codec.encode(message));
+        output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
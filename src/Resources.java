@@ -0,0 +1,97 @@
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 클라이언트 창들이 함께 쓰는 이미지/폰트 캐시.
+// 파일은 처음 쓸 때 한 번만 읽고, 크기를 맞춘 이미지도 (파일, 크기)마다 한 번만 만든다.
+// 만든 이미지는 화면과 같은 픽셀 형식이라 그릴 때 변환 없이 바로 복사된다.
+public final class Resources {
+    private static final Map<String, BufferedImage> images = new ConcurrentHashMap<>();
+    private static final Map<String, BufferedImage> scaledImages = new ConcurrentHashMap<>();
+    private static final Map<String, ImageIcon> animations = new ConcurrentHashMap<>();
+    private static final Map<String, Font> fonts = new ConcurrentHashMap<>();
+
+    private Resources() {
+    }
+
+    // 원본 크기 이미지. 없는 파일이면 IllegalStateException
+    public static BufferedImage image(String path) {
+        return images.computeIfAbsent(path, Resources::load);
+    }
+
+    // width x height로 줄이거나 늘린 이미지
+    public static BufferedImage scaled(String path, int width, int height) {
+        return scaledImages.computeIfAbsent(path + "@" + width + "x" + height, key -> {
+            BufferedImage source = image(path);
+            if (source.getWidth() == width && source.getHeight() == height) return source;
+            Image smooth = source.getScaledInstance(width, height, Image.SCALE_SMOOTH);
+            BufferedImage image = compatibleImage(width, height, source.getColorModel().getTransparency());
+            Graphics2D g = image.createGraphics();
+            g.drawImage(smooth, 0, 0, null);
+            g.dispose();
+            return image;
+        });
+    }
+
+    public static ImageIcon icon(String path, int width, int height) {
+        return new ImageIcon(scaled(path, width, height));
+    }
+
+    // 움직이는 GIF. 여러 프레임을 가진 이미지라 ImageIcon 그대로 두고 같은 객체를 여러 창이 쓴다.
+    public static ImageIcon animation(String path) {
+        return animations.computeIfAbsent(path, key -> new ImageIcon(resource(key)));
+    }
+
+    // 글꼴 파일은 한 번만 읽고 크기만 바꿔 돌려준다. 읽을 수 없으면 null
+    public static Font font(String path, float size) {
+        Font base = fonts.computeIfAbsent(path, key -> {
+            try (InputStream fontStream = Resources.class.getResourceAsStream(key)) {
+                if (fontStream == null) {
+                    System.err.println("폰트 파일을 찾을 수 없습니다: " + key);
+                    return null;
+                }
+                return Font.createFont(Font.TRUETYPE_FONT, fontStream);
+            } catch (Exception e) {
+                e.printStackTrace();
+                return null;
+            }
+        });
+        return base != null ? base.deriveFont(size) : null;
+    }
+
+    private static URL resource(String path) {
+        URL url = Resources.class.getResource(path);
+        if (url == null) throw new IllegalStateException("리소스를 찾을 수 없습니다: " + path);
+        return url;
+    }
+
+    private static BufferedImage load(String path) {
+        try {
+            BufferedImage source = ImageIO.read(resource(path));
+            if (source == null) throw new IllegalStateException("이미지 형식을 읽을 수 없습니다: " + path);
+            BufferedImage image = compatibleImage(source.getWidth(), source.getHeight(),
+                    source.getColorModel().getTransparency());
+            Graphics2D g = image.createGraphics();
+            g.drawImage(source, 0, 0, null);
+            g.dispose();
+            return image;
+        } catch (IOException e) {
+            throw new IllegalStateException("이미지를 읽을 수 없습니다: " + path, e);
+        }
+    }
+
+    private static BufferedImage compatibleImage(int width, int height, int transparency) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height, transparency == Transparency.OPAQUE
+                    ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDefaultConfiguration().createCompatibleImage(width, height, transparency);
+    }
+}
@@ -0,0 +1,141 @@
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 진행 중인 방들을 관리한다. 방 생성/조회/정리와 재접속 토큰으로 방 찾기를 담당한다.
+public class RoomManager {
+    private final Map<Integer, GameRoom> rooms = new ConcurrentHashMap<>();
+    private final Map<String, GameRoom> sessions = new ConcurrentHashMap<>(); // 재접속 토큰 → 방
+    private final AtomicInteger nextRoomId = new AtomicInteger(1);
+    private final SecureRandom random = new SecureRandom();
+    private final ServerStats stats;
+    private final RuleSet defaultRules;
+    private final GameJournal journal;
+    private final GameArchive archive;
+    private final TimingWheel timingWheel; // 모든 방의 시계가 함께 쓴다
+    private final TimeControl timeControl;
+    private final RatingService ratings;
+    private final long reconnectGraceMillis; // 대국 중 끊긴 자리를 비워 두는 시간. 0이면 바로 방을 닫는다
+
+    public RoomManager(ServerStats stats, RuleSet defaultRules, GameJournal journal, GameArchive archive,
+                       TimingWheel timingWheel, TimeControl timeControl, RatingService ratings,
+                       long reconnectGraceMillis) {
+        this.stats = stats;
+        this.defaultRules = defaultRules;
+        this.journal = journal;
+        this.archive = archive;
+        this.timingWheel = timingWheel;
+        this.timeControl = timeControl;
+        this.ratings = ratings;
+        this.reconnectGraceMillis = reconnectGraceMillis;
+    }
+
+    // 두 플레이어로 새 방을 만들고 대국을 시작한다. 방은 따로 스레드를 두지 않는다.
+    // 연결의 읽기는 시작하지 않으므로 부른 쪽이 connection.startReading(room)을 불러야 한다.
+    public GameRoom createRoom(Connection player1, Connection player2) {
+        return createRoom(player1, player2, defaultRules);
+    }
+
+    public GameRoom createRoom(Connection player1, Connection player2, RuleSet rules) {
+        int roomId = nextRoomId.getAndIncrement();
+        String[] tokens = {newToken(), newToken()};
+        String[] names = {player1.getPlayerName(), player2.getPlayerName()};
+        GameRoom room = new GameRoom(roomId, this, rules, tokens, names, System.currentTimeMillis());
+        rooms.put(roomId, room);
+        sessions.put(tokens[0], room);
+        sessions.put(tokens[1], room);
+        room.start(player1, player2);
+        return room;
+    }
+
+    // 기록에서 읽은 방을 플레이어 없이 되살린다. 플레이어는 resume()으로 들어온다.
+    public GameRoom restoreRoom(GameJournal.RoomRecord record) {
+        nextRoomId.accumulateAndGet(record.roomId + 1, Math::max);
+        GameRoom room = new GameRoom(record.roomId, this, record.rules, record.tokens, record.names, record.startedAt);
+        room.restore(record.moves);
+        rooms.put(record.roomId, room);
+        sessions.put(record.tokens[0], room);
+        sessions.put(record.tokens[1], room);
+        return room;
+    }
+
+    // 토큰에 맞는 방의 자리로 연결을 돌려보낸다. 맞는 방이 없거나 이미 끝났으면 false
+    // boardSeq는 클라이언트가 마지막으로 반영한 보드 순번이다. 그 뒤의 변경분만 보내 준다.
+    public boolean resume(String token, int boardSeq, Connection connection) throws IOException {
+        GameRoom room = sessions.get(token);
+        return room != null && room.resume(token, boardSeq, connection);
+    }
+
+    // 진행 중인 방에 관전자로 들여보낸다. 방이 없거나 이미 끝났으면 false
+    public boolean watch(int roomId, Connection connection) {
+        GameRoom room = rooms.get(roomId);
+        return room != null && room.watch(connection);
+    }
+
+    public GameRoom getRoom(int roomId) {
+        return rooms.get(roomId);
+    }
+
+    public Collection<GameRoom> getRooms() {
+        return rooms.values();
+    }
+
+    public int getRoomCount() {
+        return rooms.size();
+    }
+
+    // 방을 닫는다. 이미 닫힌 방이면 아무 일도 하지 않는다.
+    public void closeRoom(int roomId) {
+        GameRoom room = rooms.get(roomId);
+        if (room != null) {
+            room.close();
+        }
+    }
+
+    public ServerStats getStats() {
+        return stats;
+    }
+
+    public GameJournal getJournal() {
+        return journal;
+    }
+
+    public GameArchive getArchive() {
+        return archive;
+    }
+
+    public TimingWheel getTimingWheel() {
+        return timingWheel;
+    }
+
+    public TimeControl getTimeControl() {
+        return timeControl;
+    }
+
+    public RatingService getRatings() {
+        return ratings;
+    }
+
+    public long getReconnectGraceMillis() {
+        return reconnectGraceMillis;
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    // GameRoom.close()에서 호출된다.
+    void removeRoom(int roomId) {
+        GameRoom room = rooms.remove(roomId);
+        if (room != null) {
+            sessions.remove(room.getToken(0));
+            sessions.remove(room.getToken(1));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+// 방마다 고르는 대국 규칙.
+//   FREESTYLE: 5개 이상 이으면 승리. 금수 없음.
+//   STANDARD: 정확히 5개를 이어야 승리(장목은 승리가 아니지만 둘 수는 있다). 금수 없음.
+//   RENJU: 흑은 정확히 5개만 승리이고 삼삼, 사사, 장목이 금수다. 오목이 되면 금수보다 우선한다.
+//          백은 금수가 없고 장목도 승리다.
+public enum RuleSet {
+    FREESTYLE,
+    STANDARD,
+    RENJU;
+
+    public static RuleSet fromName(String name) {
+        for (RuleSet rules : values()) {
+            if (rules.name().equalsIgnoreCase(name)) return rules;
+        }
+        throw new IllegalArgumentException("Unknown rules: " + name);
+    }
+
+    // (row, col)에 stone을 둔 뒤에 호출한다.
+    public boolean isWin(Board board, int row, int col, char stone) {
+        if (this == FREESTYLE || (this == RENJU && stone == Board.WHITE)) {
+            return board.isFive(row, col, stone);
+        }
+        return isExactFive(board, row, col, stone);
+    }
+
+    // (row, col)에 stone을 둔 뒤에 호출한다. 승리 수는 금수가 아니다.
+    public boolean isForbidden(Board board, int row, int col, char stone) {
+        if (this != RENJU || stone != Board.BLACK) return false;
+
+        int fours = 0, threes = 0;
+        boolean overline = false;
+        for (int dir = 0; dir < Board.DIRECTIONS; dir++) {
+            int window = board.lineWindow(row, col, dir, stone);
+            if (PatternTable.isFive(window)) return false;
+            overline |= PatternTable.isOverline(window);
+            fours += PatternTable.fourCount(window);
+            if (PatternTable.isThree(window)) threes++;
+        }
+        return overline || fours >= 2 || threes >= 2;
+    }
+
+    private static boolean isExactFive(Board board, int row, int col, char stone) {
+        for (int dir = 0; dir < Board.DIRECTIONS; dir++) {
+            if (board.runLength(row, col, dir, stone) == 5) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,85 @@
+// 서버 실행 옵션. "--이름=값" 형식의 인자로 바꿀 수 있다.
+// 예) java GomokuServer --transport=nio --event-loops=4 --threads=virtual
+public class ServerConfig {
+    int port = 5000;
+    String transport = "blocking"; // blocking | nio
+    int eventLoops = Math.max(1, Runtime.getRuntime().availableProcessors());
+    String threads = "platform"; // platform | virtual (연결별 읽기와 소켓 처리에 쓸 스레드 종류)
+    int statsIntervalSeconds = 0; // 0이면 통계를 출력하지 않는다
+    RuleSet rules = RuleSet.RENJU; // 새 방의 기본 규칙: freestyle | standard | renju
+    String journalPath = ""; // 대국 기록 파일. 비어 있으면 기록하지 않는다
+    int journalCommitMillis = 10; // 그룹 커밋 창. 이 시간 동안 모은 기록을 한 번에 fsync한다
+    int resumeWindowSeconds = 120; // 되살린 방에 두 플레이어가 다시 들어와야 하는 시간
+    int reconnectGraceSeconds = 60; // 대국 중 끊긴 플레이어를 기다리는 시간. 0이면 끊기는 즉시 방을 닫는다
+    String archivePath = ""; // 끝난 대국을 보관할 디렉터리. 비어 있으면 보관하지 않는다
+    TimeControl timeControl = TimeControl.fromName("move:20"); // move:<초> | fischer:<초>+<초> | game:<초> | none
+    int clockTickMillis = 50; // 시계용 타이밍 휠의 한 칸 크기
+    String ratingsPath = ""; // 레이팅 파일. 비어 있으면 메모리에만 둔다
+    int ratingsFlushMillis = 5000; // 바뀐 레이팅을 모아서 파일에 쓰는 간격
+    int botAfterSeconds = 30; // 이만큼 기다려도 상대가 없으면 봇과 짝짓는다. 0이면 봇을 쓰지 않는다
+    int botMoveMillis = 1000; // 봇이 한 수를 읽는 시간
+    long botMoveNodes = 0; // 봇이 한 수에 읽는 노드 수 한도. 0이면 시간만 본다
+    int botThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2); // 동시에 수를 읽는 봇 수
+    int botParallel = 1; // 봇 한 수를 나눠 읽는 스레드 수. 1보다 크면 도우미 스레드가 표를 함께 채운다
+
+    public static ServerConfig fromArgs(String[] args) {
+        ServerConfig config = new ServerConfig();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            config.set(name, value);
+        }
+        return config;
+    }
+
+    private void set(String name, String value) {
+        switch (name) {
+            case "port" -> port = Integer.parseInt(value);
+            case "transport" -> {
+                if (!value.equals("blocking") && !value.equals("nio")) {
+                    throw new IllegalArgumentException("Unknown transport: " + value);
+                }
+                transport = value;
+            }
+            case "event-loops" -> eventLoops = Integer.parseInt(value);
+            case "threads" -> {
+                if (!value.equals("platform") && !value.equals("virtual")) {
+                    throw new IllegalArgumentException("Unknown thread mode: " + value);
+                }
+                threads = value;
+            }
+            case "stats-interval" -> statsIntervalSeconds = Integer.parseInt(value);
+            case "rules" -> rules = RuleSet.fromName(value);
+            case "journal" -> journalPath = value;
+            case "journal-commit-ms" -> journalCommitMillis = Integer.parseInt(value);
+            case "resume-window" -> resumeWindowSeconds = Integer.parseInt(value);
+            case "reconnect-grace" -> reconnectGraceSeconds = Integer.parseInt(value);
+            case "archive" -> archivePath = value;
+            case "time-control" -> timeControl = TimeControl.fromName(value);
+            case "clock-tick-ms" -> clockTickMillis = Integer.parseInt(value);
+            case "ratings" -> ratingsPath = value;
+            case "ratings-flush-ms" -> ratingsFlushMillis = Integer.parseInt(value);
+            case "bot-after" -> botAfterSeconds = Integer.parseInt(value);
+            case "bot-move-ms" -> botMoveMillis = Integer.parseInt(value);
+            case "bot-nodes" -> botMoveNodes = Long.parseLong(value);
+            case "bot-threads" -> botThreads = Integer.parseInt(value);
+            case "bot-parallel" -> botParallel = Integer.parseInt(value);
+            default -> throw new IllegalArgumentException("Unknown option: --" + name);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "port=" + port + ", transport=" + transport + ", event-loops=" + eventLoops
+                + ", threads=" + threads + ", rules=" + rules.name().toLowerCase() + ", time-control=" + timeControl
+                + ", reconnect-grace=" + reconnectGraceSeconds
+                + (botAfterSeconds > 0 ? ", bot-after=" + botAfterSeconds + ", bot-move-ms=" + botMoveMillis
+                        + (botParallel > 1 ? ", bot-parallel=" + botParallel : "") : "")
+                + (journalPath.isEmpty() ? "" : ", journal=" + journalPath + ", journal-commit-ms=" + journalCommitMillis)
+                + (archivePath.isEmpty() ? "" : ", archive=" + archivePath)
+                + (ratingsPath.isEmpty() ? "" : ", ratings=" + ratingsPath);
+    }
+}
@@ -0,0 +1,59 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// 스레드 모드(platform/virtual)를 비교하기 위한 간단한 서버 통계.
+// 수 처리 지연은 마이크로초 단위 2의 거듭제곱 구간으로 모아서 p50/p99를 근사한다.
+public class ServerStats {
+    private static final int BUCKETS = 40;
+
+    private final AtomicLongArray latencyBuckets = new AtomicLongArray(BUCKETS);
+    private final AtomicInteger connections = new AtomicInteger();
+
+    public void connectionOpened() {
+        connections.incrementAndGet();
+    }
+
+    public void connectionClosed() {
+        connections.decrementAndGet();
+    }
+
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    // 수를 받은 시점(System.nanoTime())부터 지금까지의 처리 시간을 기록한다.
+    public void recordMoveLatency(long startNanos) {
+        long micros = Math.max(1, (System.nanoTime() - startNanos) / 1000);
+        int bucket = Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros));
+        latencyBuckets.incrementAndGet(bucket);
+    }
+
+    // 백분위 값이 들어있는 구간의 상한(마이크로초)을 돌려준다.
+    public long percentileMicros(double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) total += latencyBuckets.get(i);
+        if (total == 0) return 0;
+
+        long target = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += latencyBuckets.get(i);
+            if (seen >= target) return 1L << (i + 1);
+        }
+        return 1L << BUCKETS;
+    }
+
+    public String report(int roomCount) {
+        Runtime runtime = Runtime.getRuntime();
+        long usedHeap = runtime.totalMemory() - runtime.freeMemory();
+        int connectionCount = getConnectionCount();
+        long perConnection = connectionCount > 0 ? usedHeap / connectionCount : 0;
+        return "connections=" + connectionCount
+                + ", rooms=" + roomCount
+                + ", threads=" + Thread.activeCount()
+                + ", heapUsed=" + (usedHeap / 1024) + "KB"
+                + ", heapPerConnection=" + (perConnection / 1024) + "KB"
+                + ", moveLatency p50<=" + percentileMicros(0.50) + "us"
+                + ", p99<=" + percentileMicros(0.99) + "us";
+    }
+}
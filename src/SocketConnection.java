@@ -0,0 +1,125 @@
+import java.io.*;
+import java.net.Socket;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+// 기존 방식의 블로킹 소켓 연결. 읽기는 executor의 스레드 하나가 전담한다.
+public class SocketConnection implements Connection {
+    private final Socket socket;
+    private final DataInputStream input;
+    private final DataOutputStream output;
+    private final Executor readerExecutor;
+    private final FrameCodec codec = new FrameCodec();
+    // 가상 스레드가 쓰기 중에 캐리어 스레드를 붙잡지 않도록 synchronized 대신 사용한다.
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicBoolean readerStarted = new AtomicBoolean(false);
+    private final AtomicBoolean closeNotified = new AtomicBoolean(false);
+    private volatile FrameListener listener;
+    private volatile String playerName = GUEST;
+
+    public SocketConnection(Socket socket, Executor readerExecutor) throws IOException {
+        this.socket = socket;
+        this.input = new DataInputStream(socket.getInputStream());
+        this.output = new DataOutputStream(socket.getOutputStream());
+        this.readerExecutor = readerExecutor;
+    }
+
+    @Override
+    public void startReading(FrameListener listener) {
+        this.listener = listener;
+        if (readerStarted.compareAndSet(false, true)) {
+            readerExecutor.execute(this::readLoop);
+        }
+    }
+
+    // 연결이 닫히면 readUTF()가 예외를 던지므로 스레드도 함께 끝난다.
+    private void readLoop() {
+        try {
+            while (true) {
+                int length = input.readUnsignedShort();
+                byte[] frame = new byte[2 + length];
+                frame[0] = (byte) (length >> 8);
+                frame[1] = (byte) length;
+                input.readFully(frame, 2, length);
+
+                Message message = codec.decode(frame);
+                if (message.type == MessageType.HELLO) {
+                    // 버전 협상은 연결에서 바로 응답하고, 리스너에는 새 클라이언트라는 표시로만 넘긴다.
+                    send(Message.helloAck(Math.min(message.row, FrameCodec.BINARY_VERSION)));
+                }
+                listener.onFrame(this, message);
+            }
+        } catch (IOException e) {
+            close();
+        } catch (RuntimeException e) {
+            // 방이나 로비의 처리에서 난 예외다. 닫아서 상대와 방이 기다리지 않게 한다.
+            System.out.println("Error handling " + getRemoteAddress() + ": " + e);
+            close();
+        }
+    }
+
+    // 여러 스레드(두 플레이어의 읽기 스레드)가 동시에 쓸 수 있으므로 프레임 단위로 잠근다.
+    @Override
+    public void send(Message message) throws IOException {
+        writeLock.lock();
+        try {
+            output.write(codec.encode(message));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void sendFrame(byte[] frame) throws IOException {
+        writeLock.lock();
+        try {
+            output.write(frame);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public int pendingFrames() {
+        return 0;
+    }
+
+    @Override
+    public void close() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            System.out.println("Error closing connection: " + e.getMessage());
+        }
+        FrameListener current = listener;
+        if (current != null && closeNotified.compareAndSet(false, true)) {
+            current.onClose(this);
+        }
+    }
+
+    @Override
+    public boolean isBinary() {
+        return codec.isBinaryOutbound();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return socket.isClosed();
+    }
+
+    @Override
+    public String getRemoteAddress() {
+        return String.valueOf(socket.getRemoteSocketAddress());
+    }
+
+    @Override
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    @Override
+    public void setPlayerName(String name) {
+        playerName = name;
+    }
+}
@@ -0,0 +1,143 @@
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+// 한 방의 관전자들에게 보드 변경분, 채팅, 시계를 보내는 곳.
+// 메시지는 publish()에서 바이너리 프레임으로 한 번만 인코딩하고 같은 바이트를 모든 관전자에게 보낸다.
+// 관전자마다 보낼 프레임 큐를 두고 쓰기는 가상 스레드에서 하므로, 느린 관전자가 있어도 방의 잠금을 쥔
+// 플레이어 쪽 처리는 큐에 넣기만 하고 바로 돌아온다.
+// 관전자 큐(블로킹 연결)나 소켓 출력 큐(NIO)에 MAX_BACKLOG 프레임 넘게 쌓이면 밀린 변경분을 버리고
+// 그 시점의 보드 전체(BOARD) 하나로 바꾼다. 보드에는 순번이 있으므로 이어지는 변경분과 자연스럽게 맞물린다.
+public class SpectatorBroadcast implements FrameListener {
+    private static final int MAX_BACKLOG = 64;
+    private static final ExecutorService WRITERS =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("spectator-writer-", 0).factory());
+
+    private final int roomId;
+    private final ServerStats stats;
+    private final Map<Connection, Watcher> watchers = new ConcurrentHashMap<>();
+
+    // 관전자 한 명. 큐와 상태는 이 객체의 모니터로 보호한다.
+    private static final class Watcher {
+        final Connection connection;
+        final ArrayDeque<byte[]> queue = new ArrayDeque<>();
+        boolean writing = false;  // 쓰기 작업이 돌고 있는지
+        boolean stale = false;    // 소켓 출력이 밀려 변경분을 건너뛰는 중. 다음 publish에서 보드 전체를 보낸다
+        boolean finishing = false; // 큐를 다 보내면 연결을 닫는다
+
+        Watcher(Connection connection) {
+            this.connection = connection;
+        }
+
+        // snapshot은 frame을 반영한 뒤의 보드 전체 프레임이다.
+        synchronized void offer(byte[] frame, Supplier<byte[]> snapshot) {
+            if (finishing) return;
+            int pending = queue.size() + connection.pendingFrames();
+            if (stale || pending >= MAX_BACKLOG) {
+                queue.clear();
+                if (connection.pendingFrames() >= MAX_BACKLOG) {
+                    stale = true; // 소켓 출력 큐가 빠질 때까지 더 쌓지 않는다
+                    return;
+                }
+                stale = false;
+                queue.add(snapshot.get());
+            } else {
+                queue.add(frame);
+            }
+            startWriting();
+        }
+
+        synchronized void finish(byte[] snapshot, byte[] last) {
+            if (finishing) return;
+            if (stale) queue.add(snapshot);
+            stale = false;
+            if (last != null) queue.add(last);
+            finishing = true;
+            startWriting();
+        }
+
+        // 잠금 안에서 호출한다.
+        private void startWriting() {
+            if (writing) return;
+            writing = true;
+            WRITERS.execute(this::write);
+        }
+
+        private void write() {
+            while (true) {
+                byte[] frame;
+                synchronized (this) {
+                    frame = queue.poll();
+                    if (frame == null) {
+                        writing = false;
+                        if (finishing) break;
+                        return;
+                    }
+                }
+                try {
+                    connection.sendFrame(frame);
+                } catch (IOException e) {
+                    synchronized (this) {
+                        queue.clear();
+                        writing = false;
+                        finishing = true;
+                    }
+                    break;
+                }
+            }
+            connection.close();
+        }
+    }
+
+    public SpectatorBroadcast(int roomId, ServerStats stats) {
+        this.roomId = roomId;
+        this.stats = stats;
+    }
+
+    public int getWatcherCount() {
+        return watchers.size();
+    }
+
+    // 관전자를 받는다. 처음 보드를 보낸 뒤부터 방의 변경분을 받는다. 방의 잠금 안에서 호출한다.
+    public void add(Connection connection, byte[] snapshot) {
+        Watcher watcher = new Watcher(connection);
+        watchers.put(connection, watcher);
+        watcher.offer(snapshot, () -> snapshot);
+        connection.startReading(this);
+    }
+
+    // 방의 잠금 안에서 호출한다. snapshot은 관전자가 밀렸을 때만 부른다.
+    public void publish(Message message, Supplier<byte[]> snapshot) throws IOException {
+        if (watchers.isEmpty()) return;
+        byte[] frame = FrameCodec.binaryFrame(message);
+        for (Watcher watcher : watchers.values()) watcher.offer(frame, snapshot);
+    }
+
+    // 대국이 끝나면 밀린 관전자에게는 마지막 보드를 주고, last를 보낸 뒤 연결을 닫는다.
+    public void finish(byte[] snapshot, Message last) {
+        byte[] frame = null;
+        try {
+            if (last != null) frame = FrameCodec.binaryFrame(last);
+        } catch (IOException e) {
+            // 보낼 수 없는 크기의 메시지는 빼고 닫는다.
+        }
+        for (Watcher watcher : watchers.values()) watcher.finish(snapshot, frame);
+    }
+
+    // 관전자는 읽기 전용이다. 보내는 프레임은 무시한다.
+    @Override
+    public void onFrame(Connection from, Message message) {
+    }
+
+    @Override
+    public void onClose(Connection from) {
+        if (watchers.remove(from) != null) {
+            stats.connectionClosed();
+            System.out.println("[Room " + roomId + "] Spectator left: " + from.getRemoteAddress());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+// 방마다 적용하는 시간 규칙. 서버가 시계를 들고 있고 시간이 다 되면 서버가 처리한다.
+//   "move:20"       한 수에 20초. 시간이 다 되면 서버가 대신 아무 칸에나 둔다. (기본값, 예전 클라이언트 타이머와 같다)
+//   "fischer:300+5" 한 사람당 300초, 수를 둘 때마다 5초를 더한다. 시간이 다 되면 시간패
+//   "game:600"      한 사람당 대국 전체 600초. 시간이 다 되면 시간패
+//   "none"          시계 없음
+public final class TimeControl {
+    public enum Mode { NONE, FIXED, FISCHER, GAME }
+
+    public static final TimeControl NONE = new TimeControl(Mode.NONE, 0, 0);
+
+    public final Mode mode;
+    public final long baseMillis;      // FIXED: 한 수의 시간, FISCHER/GAME: 한 사람의 처음 시간
+    public final long incrementMillis; // FISCHER: 한 수를 둘 때마다 더하는 시간
+
+    private TimeControl(Mode mode, long baseMillis, long incrementMillis) {
+        this.mode = mode;
+        this.baseMillis = baseMillis;
+        this.incrementMillis = incrementMillis;
+    }
+
+    public static TimeControl fromName(String name) {
+        try {
+            if (name.equalsIgnoreCase("none")) return NONE;
+            int colon = name.indexOf(':');
+            TimeControl control = null;
+            if (colon > 0) {
+                String kind = name.substring(0, colon).toLowerCase();
+                String value = name.substring(colon + 1);
+                switch (kind) {
+                    case "move" -> control = new TimeControl(Mode.FIXED, seconds(value), 0);
+                    case "game" -> control = new TimeControl(Mode.GAME, seconds(value), 0);
+                    case "fischer" -> {
+                        int plus = value.indexOf('+');
+                        control = plus < 0
+                                ? new TimeControl(Mode.FISCHER, seconds(value), 0)
+                                : new TimeControl(Mode.FISCHER, seconds(value.substring(0, plus)),
+                                        seconds(value.substring(plus + 1)));
+                    }
+                }
+            }
+            if (control != null && control.baseMillis > 0) return control;
+        } catch (NumberFormatException e) {
+            // 아래에서 처리
+        }
+        throw new IllegalArgumentException("Unknown time control: " + name);
+    }
+
+    private static long seconds(String value) {
+        long seconds = Long.parseLong(value.trim());
+        if (seconds < 0) throw new NumberFormatException(value);
+        return seconds * 1000;
+    }
+
+    public boolean isEnabled() {
+        return mode != Mode.NONE;
+    }
+
+    // 시간이 다 됐을 때 지는 규칙인지. FIXED는 대신 두고 대국을 이어간다.
+    public boolean losesOnTime() {
+        return mode == Mode.FISCHER || mode == Mode.GAME;
+    }
+
+    @Override
+    public String toString() {
+        return switch (mode) {
+            case NONE -> "none";
+            case FIXED -> "move:" + baseMillis / 1000;
+            case GAME -> "game:" + baseMillis / 1000;
+            case FISCHER -> "fischer:" + baseMillis / 1000 + "+" + incrementMillis / 1000;
+        };
+    }
+}
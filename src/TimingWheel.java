@@ -0,0 +1,177 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+
+// 모든 방이 함께 쓰는 계층형 타이밍 휠. 스레드 하나가 tickMillis마다 한 칸씩 돌린다.
+// 바퀴는 LEVELS단이고 단마다 SLOTS칸이다. 0단 한 칸은 1틱, 1단 한 칸은 64틱, 2단 한 칸은 64²틱...
+// 예약은 남은 틱 수에 맞는 단의 칸에 넣고, 윗단의 칸은 차례가 오면 풀어서 아랫단으로 다시 나눈다.
+// 그래서 예약과 취소는 방 수와 상관없이 상수 시간이고, 한 틱에 하는 일은 그 틱에 만료되는 것뿐이다.
+// 만료된 작업은 잠금 밖에서 dispatcher로 넘긴다. 작업 안에서 다시 예약해도 된다.
+public class TimingWheel {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 4;
+    private static final long MAX_SPAN = 1L << (SLOT_BITS * LEVELS); // 이보다 먼 예약은 가장 윗단에 두고 다시 나눈다
+
+    private final long tickMillis;
+    private final Executor dispatcher;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Timeout[][] slots = new Timeout[LEVELS][SLOTS]; // 칸마다 이중 연결 리스트의 머리
+    private long currentTick = 0;
+
+    // 예약 하나. cancel()하면 칸에서 바로 빠진다.
+    public final class Timeout {
+        private final Runnable task;
+        private final long deadline; // 만료 틱
+        private Timeout prev;
+        private Timeout next;
+        private int level = -1; // 들어 있는 단. -1이면 어느 칸에도 없음 (만료되었거나 취소됨)
+        private int slot;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        // 아직 실행되지 않았으면 취소하고 true를 돌려준다.
+        public boolean cancel() {
+            lock.lock();
+            try {
+                if (level < 0) return false;
+                unlink(this);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    public TimingWheel(long tickMillis, Executor dispatcher) {
+        this.tickMillis = tickMillis;
+        this.dispatcher = dispatcher;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    public void start() {
+        Thread.ofPlatform().name("timing-wheel").daemon(true).start(this::run);
+    }
+
+    // delayMillis 뒤에 task를 실행한다. 틱 단위로 올려서 맞추므로 최대 한 틱 늦을 수 있다.
+    public Timeout schedule(long delayMillis, Runnable task) {
+        long ticks = Math.max(1, (delayMillis + tickMillis - 1) / tickMillis);
+        lock.lock();
+        try {
+            Timeout timeout = new Timeout(task, currentTick + ticks);
+            place(timeout);
+            return timeout;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 잠금 안에서 호출한다. 남은 틱 수가 들어가는 가장 낮은 단에 넣는다.
+    private void place(Timeout timeout) {
+        long remaining = timeout.deadline - currentTick;
+        long target = remaining < MAX_SPAN ? timeout.deadline : currentTick + MAX_SPAN - 1;
+        int level = 0;
+        while (level < LEVELS - 1 && target - currentTick >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        int slot = (int) (target >>> (SLOT_BITS * level)) & (SLOTS - 1);
+        timeout.level = level;
+        timeout.slot = slot;
+        timeout.prev = null;
+        timeout.next = slots[level][slot];
+        if (timeout.next != null) timeout.next.prev = timeout;
+        slots[level][slot] = timeout;
+    }
+
+    private void unlink(Timeout timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            slots[timeout.level][timeout.slot] = timeout.next;
+        }
+        if (timeout.next != null) timeout.next.prev = timeout.prev;
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.level = -1;
+    }
+
+    // 잠금 안에서 호출한다. 칸을 통째로 떼어 낸다.
+    private Timeout detach(int level, int slot) {
+        Timeout head = slots[level][slot];
+        slots[level][slot] = null;
+        return head;
+    }
+
+    // 한 틱 진행하고 만료된 작업을 모은다.
+    private void advance(List<Runnable> expired) {
+        lock.lock();
+        try {
+            currentTick++;
+            // 윗단의 칸 경계를 지나면 그 칸을 풀어 아랫단으로 다시 나눈다.
+            for (int level = 1; level < LEVELS; level++) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) break;
+                int slot = (int) (currentTick >>> (SLOT_BITS * level)) & (SLOTS - 1);
+                for (Timeout timeout = detach(level, slot); timeout != null; ) {
+                    Timeout next = timeout.next;
+                    place(timeout);
+                    timeout = next;
+                }
+            }
+
+            int slot = (int) currentTick & (SLOTS - 1);
+            for (Timeout timeout = detach(0, slot); timeout != null; ) {
+                Timeout next = timeout.next;
+                if (timeout.deadline <= currentTick) {
+                    timeout.level = -1;
+                    timeout.prev = null;
+                    timeout.next = null;
+                    expired.add(timeout.task);
+                } else {
+                    place(timeout);
+                }
+                timeout = next;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 밀린 틱은 따라잡되 잠들었다 깨는 시각은 시작 시각 기준으로 맞춰 오차가 쌓이지 않게 한다.
+    private void run() {
+        long startedAt = System.nanoTime();
+        long tickNanos = tickMillis * 1_000_000;
+        List<Runnable> expired = new ArrayList<>();
+        long ticked = 0;
+        while (true) {
+            long now = System.nanoTime();
+            long due = (now - startedAt) / tickNanos;
+            while (ticked < due) {
+                advance(expired);
+                ticked++;
+            }
+            for (Runnable task : expired) {
+                try {
+                    dispatcher.execute(task);
+                } catch (RuntimeException e) {
+                    System.out.println("[Clock] Failed to dispatch timer: " + e.getMessage());
+                }
+            }
+            expired.clear();
+            long sleepNanos = startedAt + (ticked + 1) * tickNanos - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    Thread.sleep(sleepNanos / 1_000_000, (int) (sleepNanos % 1_000_000));
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+}
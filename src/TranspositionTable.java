@@ -0,0 +1,54 @@
+// 탐색한 국면의 결과를 Zobrist 해시로 찾아 두는 표. 같은 국면에 다른 수순으로 다시 오면 탐색을 건너뛴다.
+// 칸마다 키와 값을 long 하나씩 두 배열에 나눠 담아 객체를 만들지 않는다. 같은 칸에 다른 국면이 오면 덮어쓴다.
+// 값은 [점수 32비트][깊이 8비트][종류 2비트][수 + 1 10비트]로 묶는다. 종류가 0이면 빈 칸이다.
+// 여러 탐색 스레드가 잠금 없이 함께 쓴다. 키 칸에는 키 ^ 값을 넣어 두고 읽을 때 다시 값과 XOR해 맞춰 본다.
+// 두 스레드가 같은 칸에 동시에 써서 키와 값이 서로 다른 쓰기에서 왔으면 맞지 않으므로 없는 것으로 본다.
+public class TranspositionTable {
+    public static final int EXACT = 1;
+    public static final int LOWER = 2; // 점수가 이보다 크거나 같다 (베타 컷)
+    public static final int UPPER = 3; // 점수가 이보다 작거나 같다 (알파를 넘지 못함)
+
+    private final long[] keys;
+    private final long[] values;
+    private final int mask;
+
+    public TranspositionTable(int bits) {
+        keys = new long[1 << bits];
+        values = new long[1 << bits];
+        mask = (1 << bits) - 1;
+    }
+
+    // 키가 맞는 값을, 없으면 0을 돌려준다.
+    public long probe(long key) {
+        int index = (int) key & mask;
+        long value = values[index];
+        return (keys[index] ^ value) == key ? value : 0;
+    }
+
+    // 같은 국면이면 더 깊은 결과만, 다른 국면이면 무조건 덮어쓴다.
+    public void store(long key, int depth, int kind, int score, int move) {
+        int index = (int) key & mask;
+        long old = values[index];
+        if ((keys[index] ^ old) == key && depth(old) > depth) return;
+        long value = (score & 0xFFFFFFFFL) | ((long) depth << 32) | ((long) kind << 40) | ((long) (move + 1) << 42);
+        values[index] = value;
+        keys[index] = key ^ value;
+    }
+
+    public static int score(long value) {
+        return (int) value;
+    }
+
+    public static int depth(long value) {
+        return (int) (value >>> 32) & 0xFF;
+    }
+
+    public static int kind(long value) {
+        return (int) (value >>> 40) & 3;
+    }
+
+    // 칸 번호. 없으면 -1
+    public static int move(long value) {
+        return (int) (value >>> 42) - 1;
+    }
+}